@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import feign.RequestTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.auth0.client.model.Auth0APIKeyInterceptor;
+import org.wso2.auth0.client.model.Auth0AccessTokenResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the contention on the management token when many threads call the Management API at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class APIKeyInterceptorBenchmark {
+    private Auth0APIKeyInterceptor interceptor;
+
+    @Setup
+    public void setup() {
+        interceptor = new Auth0APIKeyInterceptor((grantType, audience, scope, credentials) -> {
+            Auth0AccessTokenResponse response = new Auth0AccessTokenResponse();
+            response.setAccessToken("eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCJ9.e30.c2ln");
+            response.setTokenType("Bearer");
+            response.setExpiry(TimeUnit.DAYS.toSeconds(1));
+            return response;
+        }, "client", "secret", "https://example.auth0.com/api/v2/");
+    }
+
+    @TearDown
+    public void tearDown() {
+        interceptor.shutdown();
+    }
+
+    @Benchmark
+    public RequestTemplate apply() {
+        RequestTemplate requestTemplate = new RequestTemplate();
+        interceptor.apply(requestTemplate);
+        return requestTemplate;
+    }
+}
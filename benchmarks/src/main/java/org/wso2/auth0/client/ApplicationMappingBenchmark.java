@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.auth0.client.model.Auth0ClientInfo;
+import org.wso2.carbon.apimgt.api.model.ApplicationConstants;
+import org.wso2.carbon.apimgt.api.model.OAuthApplicationInfo;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the mapping between the API Manager application model and the Auth0 client model, done on every
+ * application create, update and retrieve.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApplicationMappingBenchmark {
+    private static final String AUDIENCE = "https://api.example.com";
+
+    private Auth0OAuthClient keyManager;
+    private OAuthApplicationInfo applicationInfo;
+    private Auth0ClientInfo clientInfo;
+
+    @Setup
+    public void setup() {
+        keyManager = new Auth0OAuthClient();
+        applicationInfo = new OAuthApplicationInfo();
+        applicationInfo.setClientName("PizzaShack");
+        applicationInfo.setCallBackURL("https://localhost/callback,https://localhost/callback2");
+        applicationInfo.addParameter(ApplicationConstants.OAUTH_CLIENT_USERNAME, "admin");
+        applicationInfo.addParameter(ApplicationConstants.APP_KEY_TYPE, "PRODUCTION");
+        applicationInfo.addParameter(APIConstants.JSON_GRANT_TYPES, "client_credentials,authorization_code");
+        applicationInfo.addParameter(APIConstants.JSON_ADDITIONAL_PROPERTIES,
+                "{\"app_type\":\"regular_web\",\"token_endpoint_auth_method\":\"client_secret_post\","
+                        + "\"" + Auth0Constants.API_AUDIENCE + "\":\"" + AUDIENCE + "\"}");
+
+        clientInfo = new Auth0ClientInfo();
+        clientInfo.setClientName("adminPizzaShack_PRODUCTION");
+        clientInfo.setClientId("vN2bTzqWQ1mOa0UyKkW3lFh8sR6dXc4P");
+        clientInfo.setClientSecret("Yx8K3e0-qTzP1vWmN4rB7cF2hJ9sL6dG5aU0oI3yE8tR1wQ4zX7vB2nM5kJ9hG6f");
+        clientInfo.setGrantTypes(Arrays.asList("client_credentials", "authorization_code"));
+        clientInfo.setRedirectUris(Arrays.asList("https://localhost/callback", "https://localhost/callback2"));
+        clientInfo.setApplicationType("regular_web");
+        clientInfo.setTokenEndpointAuthMethod("client_secret_post");
+    }
+
+    @Benchmark
+    public Auth0ClientInfo toClientInfo() {
+        Map<String, Object> additionalProperties = Auth0OAuthClient.getAdditionalProperties(applicationInfo);
+        return keyManager.createClientInfoFromOauthApplicationInfo(applicationInfo, additionalProperties);
+    }
+
+    @Benchmark
+    public OAuthApplicationInfo toApplicationInfo() {
+        return keyManager.createOAuthAppInfoFromResponse(clientInfo, AUDIENCE);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the encoding and hashing of client credentials, done for every token request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CredentialsBenchmark {
+    private final String clientId = "vN2bTzqWQ1mOa0UyKkW3lFh8sR6dXc4P";
+    private final String clientSecret = "Yx8K3e0-qTzP1vWmN4rB7cF2hJ9sL6dG5aU0oI3yE8tR1wQ4zX7vB2nM5kJ9hG6f";
+
+    @Benchmark
+    public String encodeCredentials() throws APIManagementException {
+        return Auth0OAuthClient.getEncodedCredentials(clientId, clientSecret);
+    }
+
+    @Benchmark
+    public String hashCredentials() throws APIManagementException {
+        return Auth0OAuthClient.getHashedValue(clientId + ":" + clientSecret);
+    }
+}
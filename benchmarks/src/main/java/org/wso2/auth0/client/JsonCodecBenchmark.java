@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.auth0.client.model.Auth0AccessTokenResponse;
+import org.wso2.auth0.client.model.Auth0ClientInfo;
+import org.wso2.auth0.client.model.Auth0Gson;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding the Auth0 responses with a new reflective Gson instance per call, as the key manager used to,
+ * against the shared instance with the streaming adapters. Run with {@code -prof gc} to compare the allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+    private static final String CLIENT_JSON = "{\"client_id\":\"vN2bTzqWQ1mOa0UyKkW3lFh8sR6dXc4P\","
+            + "\"client_secret\":\"Yx8K3e0-qTzP1vWmN4rB7cF2hJ9sL6dG5aU0oI3yE8tR1wQ4zX7vB2nM5kJ9hG6f\","
+            + "\"name\":\"adminPizzaShack_PRODUCTION\",\"app_type\":\"regular_web\","
+            + "\"token_endpoint_auth_method\":\"client_secret_post\","
+            + "\"grant_types\":[\"client_credentials\",\"authorization_code\"],"
+            + "\"callbacks\":[\"https://localhost/callback\"],\"is_first_party\":true,\"tenant\":\"example\"}";
+    private static final String TOKEN_JSON = "{\"access_token\":\"eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCJ9.e30.c2ln\","
+            + "\"token_type\":\"Bearer\",\"expires_in\":86400,\"scope\":\"read:clients create:clients\"}";
+
+    @Benchmark
+    public Auth0ClientInfo decodeClientReflective() {
+        return new Gson().fromJson(CLIENT_JSON, Auth0ClientInfo.class);
+    }
+
+    @Benchmark
+    public Auth0ClientInfo decodeClientShared() {
+        return Auth0Gson.getGson().fromJson(CLIENT_JSON, Auth0ClientInfo.class);
+    }
+
+    @Benchmark
+    public Auth0AccessTokenResponse decodeTokenReflective() {
+        return new Gson().fromJson(TOKEN_JSON, Auth0AccessTokenResponse.class);
+    }
+
+    @Benchmark
+    public Auth0AccessTokenResponse decodeTokenShared() {
+        return Auth0Gson.getGson().fromJson(TOKEN_JSON, Auth0AccessTokenResponse.class);
+    }
+}
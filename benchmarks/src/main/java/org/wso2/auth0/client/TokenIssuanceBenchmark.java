@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.auth0.stub.Auth0StubServer;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.api.model.AccessTokenInfo;
+import org.wso2.carbon.apimgt.api.model.AccessTokenRequest;
+import org.wso2.carbon.apimgt.api.model.ApplicationConstants;
+import org.wso2.carbon.apimgt.api.model.KeyManagerConfiguration;
+import org.wso2.carbon.apimgt.api.model.OAuthAppRequest;
+import org.wso2.carbon.apimgt.api.model.OAuthApplicationInfo;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code getNewApplicationAccessToken} end to end, through the feign clients and the stub server that stands
+ * in for the Auth0 tenant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class TokenIssuanceBenchmark {
+    @Param({"false", "true"})
+    public String tokenCache;
+
+    private Auth0StubServer server;
+    private Auth0OAuthClient keyManager;
+    private AccessTokenRequest accessTokenRequest;
+
+    @Setup
+    public void setup() throws IOException, APIManagementException {
+        server = new Auth0StubServer(8).start();
+        KeyManagerConfiguration configuration = new KeyManagerConfiguration();
+        configuration.addParameter(APIConstants.KeyManager.TOKEN_ENDPOINT, server.getTokenEndpoint());
+        configuration.addParameter(Auth0Constants.CLIENT_ID, "management-client");
+        configuration.addParameter(Auth0Constants.CLIENT_SECRET, "management-secret");
+        configuration.addParameter(Auth0Constants.AUDIENCE, server.getManagementApiAudience());
+        configuration.addParameter(Auth0Constants.MANAGEMENT_API_RATE_LIMIT, "0");
+        configuration.addParameter(Auth0Constants.ENABLE_TOKEN_CACHE, tokenCache);
+        keyManager = new Auth0OAuthClient();
+        keyManager.loadConfiguration(configuration);
+
+        OAuthApplicationInfo applicationInfo = new OAuthApplicationInfo();
+        applicationInfo.setClientName("TokenIssuanceBenchmark");
+        applicationInfo.addParameter(ApplicationConstants.OAUTH_CLIENT_USERNAME, "admin");
+        applicationInfo.addParameter(APIConstants.JSON_GRANT_TYPES, Auth0Constants.GRANT_TYPE_CLIENT_CREDENTIALS);
+        applicationInfo.addParameter(APIConstants.JSON_ADDITIONAL_PROPERTIES,
+                "{\"" + Auth0Constants.API_AUDIENCE + "\":\"https://api.example.com\"}");
+        OAuthAppRequest appRequest = new OAuthAppRequest();
+        appRequest.setOAuthApplicationInfo(applicationInfo);
+        OAuthApplicationInfo application = keyManager.createApplication(appRequest);
+
+        accessTokenRequest = new AccessTokenRequest();
+        accessTokenRequest.setClientId(application.getClientId());
+        accessTokenRequest.setClientSecret(application.getClientSecret());
+        accessTokenRequest.setGrantType(Auth0Constants.GRANT_TYPE_CLIENT_CREDENTIALS);
+        accessTokenRequest.setScope(new String[]{"read:clients"});
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Benchmark
+    public AccessTokenInfo getNewApplicationAccessToken() throws APIManagementException {
+        return keyManager.getNewApplicationAccessToken(accessTokenRequest);
+    }
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import feign.FeignException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.auth0.client.model.Auth0ClientGrant;
+import org.wso2.auth0.client.model.Auth0ClientGrantInfo;
+import org.wso2.auth0.client.model.Auth0ClientInfo;
+import org.wso2.auth0.client.model.Auth0DCRClient;
+import org.wso2.auth0.client.model.Auth0ManagementTokenStore;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.impl.dao.ApiMgtDAO;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Compares the Auth0 clients created by the key manager with the applications of API Manager and repairs the
+ * differences. The clients are recognized by a marker in their metadata, which holds the tenant domain and name of the
+ * key manager and the ID of the API Manager deployment, so that deployments sharing an Auth0 tenant leave the clients
+ * of the others alone. Clients without an application are reported, and deleted only when configured to. A client is
+ * deleted only when it was already found without an application by an earlier run at least the grace period before, so
+ * that a client just created for an application whose key mapping is not stored yet is not lost, and only after the
+ * listing is finished, so that the pages do not shift while they are read. Clients that lost their client grant get it
+ * back, with the audience recorded in their metadata when they were created.
+ * <p>
+ * The clients and client grants are listed page by page, which costs one call per page. A fingerprint of every client
+ * found consistent is kept for a day, and a client whose fingerprint did not change since is not checked again, so a
+ * run only looks up the applications and creates the grants of the clients that changed. The checks run with bounded
+ * parallelism, and their calls go through the rate limit of the Management API.
+ * <p>
+ * When the nodes of the deployment share a management token store, the scheduled runs are made by the node holding
+ * the reconciliation lease of the store, so that the nodes do not check and delete the same clients at once.
+ */
+public class Auth0ApplicationReconciler {
+    private static final Log log = LogFactory.getLog(Auth0ApplicationReconciler.class);
+    // Identifies this node as the owner of the reconciliation lease, across the reconcilers it creates.
+    private static final String NODE_ID = UUID.randomUUID().toString();
+
+    private final Supplier<Iterator<Auth0ClientInfo>> applications;
+    private final Supplier<Iterator<Auth0ClientGrantInfo>> clientGrants;
+    private final Auth0DCRClient dcrClient;
+    private final Auth0ClientGrant clientGrantClient;
+    private final String keyManagerMarker;
+    private final boolean deleteOrphans;
+    private final long orphanGracePeriod;
+    private final int parallelism;
+    private final ExecutorService executor;
+    private final Auth0ManagementTokenStore leaseStore;
+    private final ExecutorService runner = Auth0Scheduler.newWorkerPool("auth0-km-reconciler", 1);
+    private final AtomicBoolean runScheduled = new AtomicBoolean();
+    private final Auth0Cache<String, String> verifiedFingerprints = new Auth0Cache<>(
+            Auth0Constants.RECONCILIATION_MAX_VERIFIED_CLIENTS,
+            TimeUnit.SECONDS.toMillis(Auth0Constants.RECONCILIATION_VERIFICATION_EXPIRY_SECONDS));
+    private final Map<String, Long> orphanFirstSeenTimes = new ConcurrentHashMap<>();
+    private volatile ScheduledFuture<?> scheduledRun;
+    private volatile long leaseDuration;
+
+    /**
+     * @param applications      lists the clients of the tenant.
+     * @param clientGrants      lists the client grants of the tenant.
+     * @param dcrClient         client of the clients endpoint of the Management API.
+     * @param clientGrantClient client of the client grants endpoint of the Management API.
+     * @param keyManagerMarker  metadata value marking the clients created by the key manager.
+     * @param deleteOrphans     whether clients without an application are deleted.
+     * @param orphanGracePeriod time in milliseconds for which a client stays without an application before it is
+     *                          deleted.
+     * @param parallelism       maximum number of clients checked concurrently.
+     * @param executor          executor running the checks.
+     * @param leaseStore        store holding the lease of the scheduled runs, or null if every node runs them.
+     */
+    public Auth0ApplicationReconciler(Supplier<Iterator<Auth0ClientInfo>> applications,
+                                      Supplier<Iterator<Auth0ClientGrantInfo>> clientGrants,
+                                      Auth0DCRClient dcrClient, Auth0ClientGrant clientGrantClient,
+                                      String keyManagerMarker, boolean deleteOrphans, long orphanGracePeriod,
+                                      int parallelism, ExecutorService executor,
+                                      Auth0ManagementTokenStore leaseStore) {
+        this.applications = applications;
+        this.clientGrants = clientGrants;
+        this.dcrClient = dcrClient;
+        this.clientGrantClient = clientGrantClient;
+        this.keyManagerMarker = keyManagerMarker;
+        this.deleteOrphans = deleteOrphans;
+        this.orphanGracePeriod = orphanGracePeriod;
+        this.parallelism = Math.max(1, parallelism);
+        this.executor = executor;
+        this.leaseStore = leaseStore;
+    }
+
+    /**
+     * Runs the reconciliation periodically in the background.
+     *
+     * @param interval interval between runs in milliseconds.
+     */
+    public void schedule(long interval) {
+        // The node running the scheduled runs keeps the lease across the interval between two runs.
+        leaseDuration = interval * 2;
+        scheduledRun = Auth0Scheduler.getScheduler().scheduleWithFixedDelay(new ReconciliationTask(this), interval,
+                interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Forgets that the client was found consistent, so that the next run checks it again. Called when the application
+     * of the client is removed from API Manager, in case the client is left behind in Auth0.
+     *
+     * @param clientId client ID.
+     */
+    public void forget(String clientId) {
+        verifiedFingerprints.remove(clientId);
+        orphanFirstSeenTimes.remove(clientId);
+    }
+
+    /**
+     * Reconciles the clients with the applications of API Manager. Concurrent calls run one after the other.
+     *
+     * @return outcome of the run.
+     */
+    public synchronized Auth0ReconciliationResult reconcile() {
+        Auth0ReconciliationResult result = new Auth0ReconciliationResult();
+        Map<String, Set<String>> audiences = new HashMap<>();
+        for (Iterator<Auth0ClientGrantInfo> grants = clientGrants.get(); grants.hasNext(); ) {
+            Auth0ClientGrantInfo grant = grants.next();
+            audiences.computeIfAbsent(grant.getClientId(), clientId -> new TreeSet<>()).add(grant.getAudience());
+        }
+        Semaphore permits = new Semaphore(parallelism);
+        Queue<String> orphans = new ConcurrentLinkedQueue<>();
+        for (Iterator<Auth0ClientInfo> clients = applications.get(); clients.hasNext(); ) {
+            Auth0ClientInfo client = clients.next();
+            if (!isCreatedByKeyManager(client)) {
+                continue;
+            }
+            Set<String> clientAudiences = audiences.getOrDefault(client.getClientId(), Collections.emptySet());
+            String fingerprint;
+            try {
+                fingerprint = getFingerprint(client, clientAudiences);
+            } catch (APIManagementException e) {
+                result.addFailure(client.getClientId(), e);
+                continue;
+            }
+            if (fingerprint.equals(verifiedFingerprints.get(client.getClientId()))) {
+                result.addUnchangedClient();
+                continue;
+            }
+            permits.acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        check(client, clientAudiences, fingerprint, orphans, result);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                check(client, clientAudiences, fingerprint, orphans, result);
+            }
+        }
+        // Waits for the checks still in progress.
+        permits.acquireUninterruptibly(parallelism);
+        handleOrphans(orphans, result);
+        log.info("Reconciled the Auth0 clients of " + keyManagerMarker + ": " + result);
+        return result;
+    }
+
+    /**
+     * Stops the periodic runs, and releases the lease so that another node takes them over.
+     */
+    public void shutdown() {
+        ScheduledFuture<?> run = scheduledRun;
+        if (run != null) {
+            run.cancel(false);
+        }
+        runner.shutdown();
+        if (leaseStore != null && run != null) {
+            try {
+                leaseStore.releaseLease(getLeaseKey(), NODE_ID);
+            } catch (IOException e) {
+                log.warn("Error while releasing the reconciliation lease of " + keyManagerMarker, e);
+            }
+        }
+    }
+
+    /**
+     * Acquires or renews the lease of the scheduled runs. Every node holds it when there is no lease store.
+     *
+     * @return true if this node makes the scheduled runs.
+     */
+    private boolean acquireLease() {
+        if (leaseStore == null) {
+            return true;
+        }
+        try {
+            if (leaseStore.tryAcquireLease(getLeaseKey(), NODE_ID, leaseDuration)) {
+                return true;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Clients of " + keyManagerMarker + " are reconciled by another node");
+            }
+        } catch (IOException e) {
+            log.warn("Error while acquiring the reconciliation lease of " + keyManagerMarker
+                    + ". Skipping the reconciliation.", e);
+        }
+        return false;
+    }
+
+    private String getLeaseKey() {
+        return "reconcile|" + keyManagerMarker;
+    }
+
+    private void check(Auth0ClientInfo client, Set<String> clientAudiences, String fingerprint,
+                       Queue<String> orphans, Auth0ReconciliationResult result) {
+        String clientId = client.getClientId();
+        result.addCheckedClient();
+        try {
+            if (ApiMgtDAO.getInstance().getApplicationByClientId(clientId) == null) {
+                result.addOrphanedClient(clientId);
+                orphans.add(clientId);
+                return;
+            }
+            orphanFirstSeenTimes.remove(clientId);
+            String audience = client.getClientMetadata().get(Auth0Constants.CLIENT_METADATA_AUDIENCE);
+            if (clientAudiences.isEmpty() && audience != null && !audience.isEmpty()) {
+                createClientGrant(clientId, audience);
+                result.addRepairedGrant(clientId);
+                log.info("Created the missing client grant of the Auth0 client " + clientId);
+                fingerprint = getFingerprint(client, Collections.singleton(audience));
+            }
+            verifiedFingerprints.put(clientId, fingerprint);
+        } catch (APIManagementException | RuntimeException e) {
+            log.error("Error while reconciling the Auth0 client " + clientId, e);
+            result.addFailure(clientId, e);
+        }
+    }
+
+    /**
+     * Deletes the orphaned clients that were already found without an application by an earlier run at least the
+     * grace period before, checking once more that they still have none. The other orphans are only recorded.
+     * Clients no longer found without an application are dropped from the record.
+     *
+     * @param orphans clients found without an application by this run.
+     * @param result  outcome of the run.
+     */
+    private void handleOrphans(Collection<String> orphans, Auth0ReconciliationResult result) {
+        long now = System.currentTimeMillis();
+        orphanFirstSeenTimes.keySet().retainAll(new HashSet<>(orphans));
+        for (String clientId : orphans) {
+            Long firstSeenTime = orphanFirstSeenTimes.putIfAbsent(clientId, now);
+            if (!deleteOrphans || firstSeenTime == null || now - firstSeenTime < orphanGracePeriod) {
+                log.warn("Auth0 client " + clientId + " has no application in API Manager");
+                continue;
+            }
+            try {
+                if (ApiMgtDAO.getInstance().getApplicationByClientId(clientId) != null) {
+                    orphanFirstSeenTimes.remove(clientId);
+                    continue;
+                }
+                dcrClient.deleteApplication(clientId);
+                orphanFirstSeenTimes.remove(clientId);
+                result.addDeletedClient(clientId);
+                log.info("Deleted the Auth0 client " + clientId + " that has no application in API Manager");
+            } catch (APIManagementException | RuntimeException e) {
+                log.error("Error while deleting the orphaned Auth0 client " + clientId, e);
+                result.addFailure(clientId, e);
+            }
+        }
+    }
+
+    private boolean isCreatedByKeyManager(Auth0ClientInfo client) {
+        Map<String, String> metadata = client.getClientMetadata();
+        return metadata != null && keyManagerMarker.equals(metadata.get(Auth0Constants.CLIENT_METADATA_KEY_MANAGER));
+    }
+
+    private void createClientGrant(String clientId, String audience) {
+        try {
+            clientGrantClient.createClientGrant(new Auth0ClientGrantInfo(clientId, audience));
+        } catch (FeignException e) {
+            if (e.status() != 409) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Returns a hash of the attributes of a client compared by the reconciliation, and of the audiences granted to it.
+     */
+    private static String getFingerprint(Auth0ClientInfo client, Set<String> audiences)
+            throws APIManagementException {
+        List<String> state = new ArrayList<>();
+        state.add(client.getClientId());
+        state.add(client.getClientName());
+        state.add(String.valueOf(client.getRedirectUris()));
+        state.add(String.valueOf(client.getGrantTypes()));
+        state.add(String.valueOf(client.getClientMetadata()));
+        state.add(String.valueOf(audiences));
+        return Auth0OAuthClient.getHashedValue(String.join("\n", state));
+    }
+
+    /**
+     * Periodic trigger of the runs. Holds the reconciler weakly so that a discarded configuration does not keep
+     * running, and hands the run to the runner of the reconciler so that the shared scheduler is not held up.
+     */
+    private static class ReconciliationTask implements Runnable {
+        private final WeakReference<Auth0ApplicationReconciler> reconciler;
+
+        ReconciliationTask(Auth0ApplicationReconciler reconciler) {
+            this.reconciler = new WeakReference<>(reconciler);
+        }
+
+        @Override
+        public void run() {
+            Auth0ApplicationReconciler applicationReconciler = reconciler.get();
+            if (applicationReconciler == null) {
+                // Throwing stops the periodic execution of the task.
+                throw new IllegalStateException("Application reconciler is no longer in use");
+            }
+            if (!applicationReconciler.runScheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                applicationReconciler.runner.execute(() -> {
+                    try {
+                        if (applicationReconciler.acquireLease()) {
+                            applicationReconciler.reconcile();
+                            // Renews the lease for the interval until the next run.
+                            applicationReconciler.acquireLease();
+                        }
+                    } catch (RuntimeException e) {
+                        log.error("Error while reconciling the Auth0 clients", e);
+                    } finally {
+                        applicationReconciler.runScheduled.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                applicationReconciler.runScheduled.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import org.wso2.carbon.apimgt.api.model.OAuthApplicationInfo;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Outcome of a bulk application provisioning, per key of the bulk request.
+ */
+public class Auth0BulkProvisioningResult {
+    private final Map<String, OAuthApplicationInfo> createdApplications = new ConcurrentHashMap<>();
+    private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+    private final Set<String> skippedKeys = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+
+    void addCreatedApplication(String key, OAuthApplicationInfo oAuthApplicationInfo) {
+        createdApplications.put(key, oAuthApplicationInfo);
+    }
+
+    void addFailure(String key, Throwable failure) {
+        failures.put(key, failure);
+    }
+
+    void addSkippedKey(String key) {
+        skippedKeys.add(key);
+    }
+
+    void addPendingKey(String key) {
+        pendingKeys.add(key);
+    }
+
+    /**
+     * @return applications created by this run.
+     */
+    public Map<String, OAuthApplicationInfo> getCreatedApplications() {
+        return Collections.unmodifiableMap(createdApplications);
+    }
+
+    /**
+     * @return failure of each application that could not be created.
+     */
+    public Map<String, Throwable> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return keys skipped because an earlier run already created them.
+     */
+    public Set<String> getSkippedKeys() {
+        return Collections.unmodifiableSet(skippedKeys);
+    }
+
+    /**
+     * @return keys that were not attempted because the run was interrupted.
+     */
+    public Set<String> getPendingKeys() {
+        return Collections.unmodifiableSet(pendingKeys);
+    }
+
+    public boolean isSuccessful() {
+        return failures.isEmpty() && pendingKeys.isEmpty();
+    }
+}
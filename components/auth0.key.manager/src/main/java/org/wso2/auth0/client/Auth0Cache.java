@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.auth0.client;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Bounded in-memory cache whose entries expire after a time to live. Reads and writes do not lock, so that the cache
+ * can sit on the token validation path of the gateway. Every entry records when it was last read, and when the cache
+ * grows past its maximum size one writer evicts the expired entries and then the least recently read ones, down to a
+ * tenth below the maximum size so that the eviction runs once per many writes. The cache may briefly hold more
+ * entries than its maximum size while the eviction runs.
+ *
+ * @param <K> type of the cache keys.
+ * @param <V> type of the cached values.
+ */
+public class Auth0Cache<K, V> {
+    private final int maxSize;
+    private final long timeToLive;
+    private final ConcurrentHashMap<K, CacheEntry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * Creates a cache whose entries are always added with an explicit expiry time.
+     *
+     * @param maxSize maximum number of entries kept in the cache.
+     */
+    public Auth0Cache(int maxSize) {
+        this(maxSize, 0);
+    }
+
+    /**
+     * @param maxSize    maximum number of entries kept in the cache.
+     * @param timeToLive default time to live of an entry in milliseconds.
+     */
+    public Auth0Cache(int maxSize, long timeToLive) {
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Returns the cached value of the key, or null when it is absent or expired.
+     *
+     * @param key cache key.
+     * @return cached value.
+     */
+    public V get(K key) {
+        long now = System.currentTimeMillis();
+        CacheEntry<V> entry = entries.get(key);
+        if (entry != null && entry.expiryTime > now) {
+            if (entry.lastAccessTime != now) {
+                entry.lastAccessTime = now;
+            }
+            hitCount.incrementAndGet();
+            return entry.value;
+        }
+        if (entry != null) {
+            entries.remove(key, entry);
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches the value for the default time to live.
+     *
+     * @param key   cache key.
+     * @param value value to cache.
+     */
+    public void put(K key, V value) {
+        put(key, value, System.currentTimeMillis() + timeToLive);
+    }
+
+    /**
+     * Caches the value until the given time.
+     *
+     * @param key        cache key.
+     * @param value      value to cache.
+     * @param expiryTime time in milliseconds since the epoch at which the entry expires.
+     */
+    public void put(K key, V value, long expiryTime) {
+        long now = System.currentTimeMillis();
+        if (maxSize <= 0 || expiryTime <= now) {
+            return;
+        }
+        entries.put(key, new CacheEntry<>(value, expiryTime, now));
+        if (entries.size() > maxSize && evicting.compareAndSet(false, true)) {
+            try {
+                evict(now);
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    public V remove(K key) {
+        CacheEntry<V> entry = entries.remove(key);
+        return entry != null ? entry.value : null;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Removes all the entries whose value matches the filter.
+     *
+     * @param filter filter selecting the values to remove.
+     */
+    public void removeIf(Predicate<V> filter) {
+        entries.values().removeIf(entry -> filter.test(entry.value));
+    }
+
+    /**
+     * Removes all the expired entries from the cache.
+     */
+    public void removeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiryTime <= now);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public double getHitRatio() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total > 0 ? (double) hits / total : 0;
+    }
+
+    /**
+     * Evicts the expired entries, and then the entries read least recently until the cache is a tenth below its
+     * maximum size. Entries read while the eviction runs may still be evicted.
+     *
+     * @param now current time in milliseconds since the epoch.
+     */
+    private void evict(long now) {
+        int targetSize = maxSize - maxSize / 10;
+        long[] accessTimes = new long[entries.size()];
+        int count = 0;
+        for (Iterator<CacheEntry<V>> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+            CacheEntry<V> entry = iterator.next();
+            if (entry.expiryTime <= now) {
+                iterator.remove();
+                evictionCount.incrementAndGet();
+            } else if (count < accessTimes.length) {
+                accessTimes[count++] = entry.lastAccessTime;
+            }
+        }
+        int excess = entries.size() - targetSize;
+        if (excess <= 0 || count == 0) {
+            return;
+        }
+        Arrays.sort(accessTimes, 0, count);
+        long threshold = accessTimes[Math.min(excess, count) - 1];
+        for (Iterator<Map.Entry<K, CacheEntry<V>>> iterator = entries.entrySet().iterator();
+             iterator.hasNext() && excess > 0; ) {
+            if (iterator.next().getValue().lastAccessTime <= threshold) {
+                iterator.remove();
+                evictionCount.incrementAndGet();
+                excess--;
+            }
+        }
+    }
+
+    private static class CacheEntry<V> {
+        private final V value;
+        private final long expiryTime;
+        private volatile long lastAccessTime;
+
+        CacheEntry(V value, long expiryTime, long lastAccessTime) {
+            this.value = value;
+            this.expiryTime = expiryTime;
+            this.lastAccessTime = lastAccessTime;
+        }
+    }
+}
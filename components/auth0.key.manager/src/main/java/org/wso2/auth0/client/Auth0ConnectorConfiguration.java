@@ -57,6 +57,132 @@ public class Auth0ConnectorConfiguration implements KeyManagerConnectorConfigura
         configurationDtoList.add(new ConfigurationDto(Auth0Constants.AUDIENCE, "Audience", "input",
                 "Audience of the Admin API", "https://[tenant].[region].auth0.com/api/v2/",
                 true, false, Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.TOKEN_REFRESH_RATIO,
+                "Management Token Refresh Ratio", "input",
+                "Fraction of the management API token lifetime after which it is refreshed in the background",
+                String.valueOf(Auth0Constants.DEFAULT_TOKEN_REFRESH_RATIO), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.MANAGEMENT_TOKEN_FETCH,
+                "Management Token Fetch", "select", "Fetch the first management API token on the first call to "
+                + "Auth0 (lazy), or in the background as soon as the key manager is loaded (background)",
+                Auth0Constants.MANAGEMENT_TOKEN_FETCH_LAZY, false, false,
+                Arrays.asList(Auth0Constants.MANAGEMENT_TOKEN_FETCH_LAZY,
+                        Auth0Constants.MANAGEMENT_TOKEN_FETCH_BACKGROUND), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.MANAGEMENT_TOKEN_STORE,
+                "Management Token Store", "input", "Store through which the API Manager nodes share the management "
+                + "API token: local to fetch the token on every node, file to share it through a directory, or the "
+                + "class name of an Auth0ManagementTokenStore implementation",
+                Auth0Constants.MANAGEMENT_TOKEN_STORE_LOCAL, false, false, Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.MANAGEMENT_TOKEN_STORE_PATH,
+                "Management Token Store Directory", "input", "Directory shared by the nodes, used by the file "
+                + "management token store", "", false, false, Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.CONNECTION_POOL_MAX_IDLE,
+                "Max Idle Connections", "input", "Maximum number of idle connections kept open to Auth0",
+                String.valueOf(Auth0Constants.DEFAULT_CONNECTION_POOL_MAX_IDLE), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.CONNECTION_KEEP_ALIVE,
+                "Connection Keep Alive (seconds)", "input", "Time an idle connection to Auth0 is kept open",
+                String.valueOf(Auth0Constants.DEFAULT_CONNECTION_KEEP_ALIVE_SECONDS), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.MAX_REQUESTS_PER_HOST,
+                "Max Concurrent Requests", "input", "Maximum number of concurrent asynchronous requests to Auth0",
+                String.valueOf(Auth0Constants.DEFAULT_MAX_REQUESTS_PER_HOST), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.CONNECT_TIMEOUT,
+                "Connect Timeout (ms)", "input", "Connection timeout for the calls made to Auth0",
+                String.valueOf(Auth0Constants.DEFAULT_CONNECT_TIMEOUT_MILLIS), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.READ_TIMEOUT,
+                "Read Timeout (ms)", "input", "Read timeout for the calls made to Auth0",
+                String.valueOf(Auth0Constants.DEFAULT_READ_TIMEOUT_MILLIS), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.ENABLE_HTTP2, "Enable HTTP/2", "select",
+                "Multiplex the calls made to Auth0 over HTTP/2", "true", false, false,
+                Arrays.asList("true", "false"), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.CLIENT_GRANT_CACHE_EXPIRY,
+                "Client Grant Cache Expiry (seconds)", "input",
+                "Time the client grants of an application are cached. Set 0 to disable the cache",
+                String.valueOf(Auth0Constants.DEFAULT_CLIENT_GRANT_CACHE_EXPIRY_SECONDS), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.MANAGEMENT_API_RATE_LIMIT,
+                "Management API Rate Limit", "input",
+                "Maximum number of Management API calls per second matching the tenant quota. Set 0 to disable",
+                String.valueOf(Auth0Constants.DEFAULT_MANAGEMENT_API_RATE_LIMIT), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.MANAGEMENT_API_MAX_ATTEMPTS,
+                "Management API Max Attempts", "input",
+                "Maximum number of attempts of a Management API call that was rate limited or failed to connect",
+                String.valueOf(Auth0Constants.DEFAULT_MANAGEMENT_API_MAX_ATTEMPTS), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD,
+                "Circuit Breaker Failure Rate Threshold (%)", "input",
+                "Percentage of failed calls to an endpoint at which calls to it are rejected for a while. "
+                        + "0 disables the circuit breaker",
+                String.valueOf(Auth0Constants.DEFAULT_CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD,
+                "Circuit Breaker Slow Call Rate Threshold (%)", "input",
+                "Percentage of slow calls to an endpoint at which calls to it are rejected for a while",
+                String.valueOf(Auth0Constants.DEFAULT_CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.CIRCUIT_BREAKER_SLOW_CALL_DURATION,
+                "Circuit Breaker Slow Call Duration (ms)", "input", "Calls taking longer than this are slow",
+                String.valueOf(Auth0Constants.DEFAULT_CIRCUIT_BREAKER_SLOW_CALL_DURATION_MILLIS), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.CIRCUIT_BREAKER_WAIT_DURATION,
+                "Circuit Breaker Wait Duration (seconds)", "input",
+                "Time for which calls are rejected before a probe call is let through",
+                String.valueOf(Auth0Constants.DEFAULT_CIRCUIT_BREAKER_WAIT_DURATION_SECONDS), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.CIRCUIT_BREAKER_WINDOW_SIZE,
+                "Circuit Breaker Window Size", "input", "Number of recent calls over which the rates are computed",
+                String.valueOf(Auth0Constants.DEFAULT_CIRCUIT_BREAKER_WINDOW_SIZE), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.ENABLE_TOKEN_CACHE, "Enable Token Cache",
+                "select", "Reuse client credentials tokens that are still valid instead of requesting new ones",
+                "false", false, false, Arrays.asList("true", "false"), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.TOKEN_CACHE_SAFETY_MARGIN,
+                "Token Cache Safety Margin (seconds)", "input",
+                "Cached tokens are not served once they are this close to expiry",
+                String.valueOf(Auth0Constants.DEFAULT_TOKEN_CACHE_SAFETY_MARGIN_SECONDS), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.SCOPE_RESOURCE_SERVER, "Scope Resource Server",
+                "input", "ID or identifier of the Auth0 API holding the scopes of API Manager. Scopes are not "
+                + "synchronized with Auth0 when this is not set", "", false, false, Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.SCOPE_REFRESH_INTERVAL,
+                "Scope Refresh Interval (seconds)", "input",
+                "Age after which the scopes kept in memory are fetched again from Auth0",
+                String.valueOf(Auth0Constants.DEFAULT_SCOPE_REFRESH_INTERVAL_SECONDS), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.RESOURCE_SERVER_IDENTIFIER_PREFIX,
+                "API Resource Server Identifier Prefix", "input", "Prefix of the identifiers of the Auth0 APIs "
+                + "created for the published APIs, followed by the API ID. Auth0 APIs are not created when this is "
+                + "not set", "", false, false, Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.TOKEN_AUDIENCES, "Token Audiences", "input",
+                "Comma separated audiences of the access tokens accepted by the gateway, in addition to the Auth0 APIs "
+                + "created for the published APIs. Tokens cannot be validated when neither is set", "", false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.RECONCILIATION_INTERVAL,
+                "Reconciliation Interval (seconds)", "input", "Interval between the reconciliations of the Auth0 "
+                + "applications with the applications of API Manager. Set 0 to disable the scheduled reconciliation",
+                String.valueOf(Auth0Constants.DEFAULT_RECONCILIATION_INTERVAL_SECONDS), false, false,
+                Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.RECONCILIATION_DELETE_ORPHANS,
+                "Delete Orphaned Applications", "select", "Delete the Auth0 applications created by this key manager "
+                + "that no longer have an application in API Manager, instead of only reporting them", "false",
+                false, false, Arrays.asList("true", "false"), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.RECONCILIATION_ORPHAN_GRACE_PERIOD,
+                "Orphaned Application Grace Period (seconds)", "input", "Minimum time between the first and the last "
+                + "of two reconciliations finding an Auth0 application without an application in API Manager before "
+                + "it is deleted", String.valueOf(Auth0Constants.DEFAULT_RECONCILIATION_ORPHAN_GRACE_PERIOD_SECONDS),
+                false, false, Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.RECONCILIATION_PARALLELISM,
+                "Reconciliation Parallelism", "input", "Maximum number of Auth0 applications checked concurrently "
+                + "by a reconciliation", String.valueOf(Auth0Constants.DEFAULT_RECONCILIATION_PARALLELISM), false,
+                false, Collections.emptyList(), false));
+        configurationDtoList.add(new ConfigurationDto(Auth0Constants.DEPLOYMENT_ID, "Deployment ID", "input",
+                "ID telling apart the Auth0 applications of API Manager deployments sharing the Auth0 tenant. "
+                + "Generated when empty", "", false, false, Collections.emptyList(), false));
         return configurationDtoList;
     }
 
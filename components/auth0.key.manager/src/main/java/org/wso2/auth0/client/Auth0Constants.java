@@ -32,5 +32,81 @@ public class Auth0Constants {
     public static final String TOKEN_ENDPOINT_AUTH_METHOD = "token_endpoint_auth_method";
     public static final String API_AUDIENCE = "audience_of_api";
     public static final String ERROR_ENCODING_METHOD_NOT_SUPPORTED = "Encoding method is not supported";
+    public static final String ERROR_HASHING_ALGORITHM_NOT_SUPPORTED = "Hashing algorithm is not supported";
     public static final String UTF_8 = "UTF-8";
+    public static final String SHA_256 = "SHA-256";
+    public static final String TOKEN_REFRESH_RATIO = "management_token_refresh_ratio";
+    public static final double DEFAULT_TOKEN_REFRESH_RATIO = 0.8;
+    public static final String MANAGEMENT_TOKEN_FETCH = "management_token_fetch";
+    public static final String MANAGEMENT_TOKEN_FETCH_LAZY = "lazy";
+    public static final String MANAGEMENT_TOKEN_FETCH_BACKGROUND = "background";
+    public static final String MANAGEMENT_TOKEN_STORE = "management_token_store";
+    public static final String MANAGEMENT_TOKEN_STORE_LOCAL = "local";
+    public static final String MANAGEMENT_TOKEN_STORE_FILE = "file";
+    public static final String MANAGEMENT_TOKEN_STORE_PATH = "management_token_store_path";
+    public static final String DEPLOYMENT_ID = "deployment_id";
+    public static final String DEPLOYMENT_ID_FILE_EXTENSION = ".deployment";
+    public static final String CARBON_HOME = "carbon.home";
+    public static final String CONNECTION_POOL_MAX_IDLE = "connection_pool_max_idle";
+    public static final int DEFAULT_CONNECTION_POOL_MAX_IDLE = 20;
+    public static final String CONNECTION_KEEP_ALIVE = "connection_keep_alive";
+    public static final long DEFAULT_CONNECTION_KEEP_ALIVE_SECONDS = 300;
+    public static final String MAX_REQUESTS_PER_HOST = "max_requests_per_host";
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 20;
+    public static final String CONNECT_TIMEOUT = "connect_timeout";
+    public static final long DEFAULT_CONNECT_TIMEOUT_MILLIS = 10000;
+    public static final String READ_TIMEOUT = "read_timeout";
+    public static final long DEFAULT_READ_TIMEOUT_MILLIS = 30000;
+    public static final String ENABLE_HTTP2 = "enable_http2";
+    public static final String CLIENT_GRANT_CACHE_EXPIRY = "client_grant_cache_expiry";
+    public static final long DEFAULT_CLIENT_GRANT_CACHE_EXPIRY_SECONDS = 900;
+    public static final int CLIENT_GRANT_CACHE_MAX_SIZE = 10000;
+    public static final String MANAGEMENT_API_RATE_LIMIT = "management_api_rate_limit";
+    public static final double DEFAULT_MANAGEMENT_API_RATE_LIMIT = 10;
+    public static final String MANAGEMENT_API_MAX_ATTEMPTS = "management_api_max_attempts";
+    public static final int DEFAULT_MANAGEMENT_API_MAX_ATTEMPTS = 5;
+    public static final long RETRY_BACKOFF_PERIOD_MILLIS = 200;
+    public static final long RETRY_MAX_BACKOFF_PERIOD_MILLIS = 10000;
+    public static final String CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD = "circuit_breaker_failure_rate_threshold";
+    public static final double DEFAULT_CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD = 50;
+    public static final String CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD = "circuit_breaker_slow_call_rate_threshold";
+    public static final double DEFAULT_CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD = 100;
+    public static final String CIRCUIT_BREAKER_SLOW_CALL_DURATION = "circuit_breaker_slow_call_duration";
+    public static final long DEFAULT_CIRCUIT_BREAKER_SLOW_CALL_DURATION_MILLIS = 10000;
+    public static final String CIRCUIT_BREAKER_WAIT_DURATION = "circuit_breaker_wait_duration";
+    public static final long DEFAULT_CIRCUIT_BREAKER_WAIT_DURATION_SECONDS = 30;
+    public static final String CIRCUIT_BREAKER_WINDOW_SIZE = "circuit_breaker_window_size";
+    public static final int DEFAULT_CIRCUIT_BREAKER_WINDOW_SIZE = 20;
+    public static final String ENABLE_TOKEN_CACHE = "enable_token_cache";
+    public static final String TOKEN_CACHE_SAFETY_MARGIN = "token_cache_safety_margin";
+    public static final long DEFAULT_TOKEN_CACHE_SAFETY_MARGIN_SECONDS = 60;
+    public static final int TOKEN_CACHE_MAX_SIZE = 10000;
+    public static final String TOKEN_AUDIENCES = "token_audiences";
+    public static final String JWKS_PATH = ".well-known/jwks.json";
+    public static final long JWKS_REFRESH_INTERVAL_SECONDS = 3600;
+    public static final long JWKS_MIN_REFRESH_INTERVAL_SECONDS = 30;
+    public static final long JWT_CLOCK_SKEW_SECONDS = 30;
+    public static final int VALIDATED_TOKEN_CACHE_MAX_SIZE = 50000;
+    public static final int ISSUED_TOKEN_INDEX_MAX_CONSUMER_KEYS = 10000;
+    public static final int ISSUED_TOKEN_INDEX_MAX_TOKENS_PER_CONSUMER_KEY = 100;
+    public static final long ISSUED_TOKEN_INDEX_PRUNE_INTERVAL_SECONDS = 300;
+    public static final String SCOPE_RESOURCE_SERVER = "scope_resource_server";
+    public static final String SCOPE_REFRESH_INTERVAL = "scope_refresh_interval";
+    public static final long DEFAULT_SCOPE_REFRESH_INTERVAL_SECONDS = 300;
+    public static final String RESOURCE_SERVER_IDENTIFIER_PREFIX = "resource_server_identifier_prefix";
+    public static final int MANAGEMENT_API_PAGE_SIZE = 100;
+    public static final String CLIENT_METADATA_KEY_MANAGER = "wso2_key_manager";
+    public static final String CLIENT_METADATA_AUDIENCE = "wso2_audience";
+    public static final String RECONCILIATION_INTERVAL = "reconciliation_interval";
+    public static final long DEFAULT_RECONCILIATION_INTERVAL_SECONDS = 0;
+    public static final String RECONCILIATION_DELETE_ORPHANS = "reconciliation_delete_orphans";
+    public static final String RECONCILIATION_ORPHAN_GRACE_PERIOD = "reconciliation_orphan_grace_period";
+    public static final long DEFAULT_RECONCILIATION_ORPHAN_GRACE_PERIOD_SECONDS = 3600;
+    public static final String RECONCILIATION_PARALLELISM = "reconciliation_parallelism";
+    public static final int DEFAULT_RECONCILIATION_PARALLELISM = 4;
+    public static final int RECONCILIATION_MAX_VERIFIED_CLIENTS = 100000;
+    public static final long RECONCILIATION_VERIFICATION_EXPIRY_SECONDS = 86400;
+    public static final long SHARED_RESOURCE_SWEEP_INTERVAL_SECONDS = 60;
+    public static final String GRANT_TYPE_CLAIM = "gty";
+    public static final String CLIENT_CREDENTIALS_GRANT_TYPE_CLAIM_VALUE = "client-credentials";
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import java.beans.ConstructorProperties;
+import java.util.Map;
+
+/**
+ * Snapshot of the metrics of the calls made to one Auth0 endpoint. Latencies are in milliseconds and include the time
+ * spent waiting for the Management API rate limit.
+ */
+public class Auth0EndpointStatistics {
+    private final long requestCount;
+    private final long failureCount;
+    private final long retryCount;
+    private final long inFlightRequests;
+    private final double averageLatency;
+    private final double maxLatency;
+    private final Map<String, Long> statusCounts;
+    private final long rejectedCount;
+    private final long circuitOpenCount;
+    private final String circuitState;
+    private final long coalescedCount;
+    private final double coalescingRatio;
+
+    @ConstructorProperties({"requestCount", "failureCount", "retryCount", "inFlightRequests", "averageLatency",
+            "maxLatency", "statusCounts", "rejectedCount", "circuitOpenCount", "circuitState", "coalescedCount",
+            "coalescingRatio"})
+    public Auth0EndpointStatistics(long requestCount, long failureCount, long retryCount, long inFlightRequests,
+                                   double averageLatency, double maxLatency, Map<String, Long> statusCounts,
+                                   long rejectedCount, long circuitOpenCount, String circuitState,
+                                   long coalescedCount, double coalescingRatio) {
+        this.requestCount = requestCount;
+        this.failureCount = failureCount;
+        this.retryCount = retryCount;
+        this.inFlightRequests = inFlightRequests;
+        this.averageLatency = averageLatency;
+        this.maxLatency = maxLatency;
+        this.statusCounts = statusCounts;
+        this.rejectedCount = rejectedCount;
+        this.circuitOpenCount = circuitOpenCount;
+        this.circuitState = circuitState;
+        this.coalescedCount = coalescedCount;
+        this.coalescingRatio = coalescingRatio;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * @return number of requests that failed with an I/O error or an error status code.
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    public long getRetryCount() {
+        return retryCount;
+    }
+
+    public long getInFlightRequests() {
+        return inFlightRequests;
+    }
+
+    public double getAverageLatency() {
+        return averageLatency;
+    }
+
+    public double getMaxLatency() {
+        return maxLatency;
+    }
+
+    /**
+     * @return number of responses per status code. Requests that failed without a response are counted under
+     * {@code IOException}.
+     */
+    public Map<String, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    /**
+     * @return number of calls rejected without reaching Auth0 because the circuit was open.
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * @return number of times the circuit opened.
+     */
+    public long getCircuitOpenCount() {
+        return circuitOpenCount;
+    }
+
+    /**
+     * @return state of the circuit breaker of the endpoint: CLOSED, OPEN or HALF_OPEN.
+     */
+    public String getCircuitState() {
+        return circuitState;
+    }
+
+    /**
+     * @return number of calls that did not reach Auth0 because they joined an identical call in flight.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    /**
+     * @return share of the calls that joined an identical call in flight, between 0 and 1.
+     */
+    public double getCoalescingRatio() {
+        return coalescingRatio;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import com.google.gson.JsonParseException;
+import org.wso2.auth0.client.model.Auth0AccessTokenResponse;
+import org.wso2.auth0.client.model.Auth0Gson;
+import org.wso2.auth0.client.model.Auth0ManagementTokenStore;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+
+/**
+ * Management API token store backed by a directory, for nodes that share a file system or for testing the token
+ * sharing on a single host. The token and the lease of each key are kept in their own files, which are updated while
+ * holding an exclusive lock on a lock file of the key, and are only readable by the owner of the process.
+ */
+public class Auth0FileTokenStore implements Auth0ManagementTokenStore {
+    private static final String TOKEN_FILE_EXTENSION = ".token";
+    private static final String LEASE_FILE_EXTENSION = ".lease";
+    private static final String LOCK_FILE_EXTENSION = ".lock";
+    private static final String OWNER_ONLY_FILE_PERMISSIONS = "rw-------";
+    private static final String OWNER_ONLY_DIRECTORY_PERMISSIONS = "rwx------";
+    // File locks are held by the process, so the threads of this process take turns before locking a file.
+    private static final Object processLock = new Object();
+
+    private final Path directory;
+
+    /**
+     * @param directory directory holding the token files, created if it does not exist.
+     */
+    public Auth0FileTokenStore(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Auth0AccessTokenResponse getToken(String key) throws IOException {
+        return withLock(key, () -> {
+            String content = readFile(getPath(key, TOKEN_FILE_EXTENSION));
+            if (content == null) {
+                return null;
+            }
+            try {
+                return Auth0Gson.getGson().fromJson(content, Auth0AccessTokenResponse.class);
+            } catch (JsonParseException e) {
+                throw new IOException("Invalid management API token file for " + key, e);
+            }
+        });
+    }
+
+    @Override
+    public void putToken(String key, Auth0AccessTokenResponse token) throws IOException {
+        withLock(key, () -> {
+            writeFile(getPath(key, TOKEN_FILE_EXTENSION), Auth0Gson.getGson().toJson(token));
+            return null;
+        });
+    }
+
+    @Override
+    public boolean tryAcquireLease(String key, String owner, long leaseDuration) throws IOException {
+        return withLock(key, () -> {
+            Path leasePath = getPath(key, LEASE_FILE_EXTENSION);
+            String[] lease = readLease(leasePath);
+            long now = System.currentTimeMillis();
+            if (lease != null && !owner.equals(lease[0]) && Long.parseLong(lease[1]) > now) {
+                return false;
+            }
+            writeFile(leasePath, owner + "\n" + (now + leaseDuration));
+            return true;
+        });
+    }
+
+    @Override
+    public void releaseLease(String key, String owner) throws IOException {
+        withLock(key, () -> {
+            Path leasePath = getPath(key, LEASE_FILE_EXTENSION);
+            String[] lease = readLease(leasePath);
+            if (lease != null && owner.equals(lease[0])) {
+                Files.deleteIfExists(leasePath);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Runs the action while holding the lock of the key, which excludes the other threads and processes using the
+     * same directory.
+     */
+    private <T> T withLock(String key, LockedAction<T> action) throws IOException {
+        createDirectory();
+        synchronized (processLock) {
+            try (FileChannel channel = FileChannel.open(createFile(getPath(key, LOCK_FILE_EXTENSION)),
+                    StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                return action.run();
+            }
+        }
+    }
+
+    /**
+     * Returns the path of a file of the key. The key is hashed, since it holds the endpoint and the client ID.
+     */
+    private Path getPath(String key, String extension) throws IOException {
+        try {
+            return directory.resolve(Auth0OAuthClient.getHashedValue(key) + extension);
+        } catch (APIManagementException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private void createDirectory() throws IOException {
+        if (Files.isDirectory(directory)) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (FileAlreadyExistsException e) {
+            // Created by another process.
+            return;
+        }
+        setPermissions(directory, OWNER_ONLY_DIRECTORY_PERMISSIONS);
+    }
+
+    private static Path createFile(Path path) throws IOException {
+        try {
+            Files.createFile(path);
+            setPermissions(path, OWNER_ONLY_FILE_PERMISSIONS);
+        } catch (FileAlreadyExistsException e) {
+            // Created earlier.
+        }
+        return path;
+    }
+
+    /**
+     * Replaces the file by moving a new file over it, so that a process that fails while writing does not leave a
+     * partial file behind.
+     */
+    private static void writeFile(Path path, String content) throws IOException {
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(temporaryPath);
+        createFile(temporaryPath);
+        Files.write(temporaryPath, content.getBytes(StandardCharsets.UTF_8));
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String readFile(Path path) throws IOException {
+        try {
+            return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the owner and the expiry time of a lease.
+     *
+     * @return owner and expiry time, or null if there is no valid lease.
+     */
+    private static String[] readLease(Path path) throws IOException {
+        String content = readFile(path);
+        if (content == null) {
+            return null;
+        }
+        String[] lease = content.split("\n");
+        if (lease.length != 2) {
+            return null;
+        }
+        try {
+            Long.parseLong(lease[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return lease;
+    }
+
+    private static void setPermissions(Path path, String permissions) throws IOException {
+        try {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString(permissions));
+        } catch (UnsupportedOperationException e) {
+            // The file system does not support POSIX permissions, the permissions of the directory apply.
+        }
+    }
+
+    private interface LockedAction<T> {
+        T run() throws IOException;
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index of the tokens issued through the key manager, keyed by the consumer key they were issued to. Auth0 cannot
+ * list the tokens of a client, so the index is a best-effort record of them. It is kept in memory on each node, so it
+ * only holds the tokens issued by this node since it started, and drops tokens once its bounds are reached. Only the
+ * hash and the lifetime of each token are kept. Expired tokens are pruned in the background, and both the number of
+ * consumer keys and the number of tokens per consumer key are bounded.
+ */
+public class Auth0IssuedTokenIndex {
+    private final Auth0Cache<String, IssuedTokens> issuedTokens;
+    private final int maxTokensPerConsumerKey;
+    private final ScheduledFuture<?> scheduledPrune;
+
+    /**
+     * @param maxConsumerKeys         maximum number of consumer keys indexed. The least recently used is dropped.
+     * @param maxTokensPerConsumerKey maximum number of tokens indexed per consumer key. The token expiring first is
+     *                                dropped.
+     * @param pruneInterval           interval between background prunes of the expired tokens in milliseconds.
+     */
+    public Auth0IssuedTokenIndex(int maxConsumerKeys, int maxTokensPerConsumerKey, long pruneInterval) {
+        this.issuedTokens = new Auth0Cache<>(maxConsumerKeys);
+        this.maxTokensPerConsumerKey = Math.max(1, maxTokensPerConsumerKey);
+        this.scheduledPrune = Auth0Scheduler.getScheduler().scheduleWithFixedDelay(new PruneTask(this),
+                pruneInterval, pruneInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records a token issued to a consumer key.
+     *
+     * @param consumerKey consumer key the token was issued to.
+     * @param tokenHash   hash of the token.
+     * @param issuedTime  time in milliseconds since the epoch at which the token was issued.
+     * @param expiryTime  time in milliseconds since the epoch at which the token expires.
+     */
+    public void add(String consumerKey, String tokenHash, long issuedTime, long expiryTime) {
+        long now = System.currentTimeMillis();
+        if (expiryTime <= now) {
+            return;
+        }
+        synchronized (issuedTokens) {
+            IssuedTokens tokens = issuedTokens.get(consumerKey);
+            if (tokens == null) {
+                tokens = new IssuedTokens();
+            }
+            tokens.add(new IssuedToken(tokenHash, issuedTime, expiryTime), maxTokensPerConsumerKey, now);
+            // The entry lives as long as the last of its tokens.
+            issuedTokens.put(consumerKey, tokens, tokens.getLatestExpiryTime());
+        }
+    }
+
+    /**
+     * Returns the hashes of the tokens of the consumer key that have not expired.
+     *
+     * @param consumerKey consumer key.
+     * @return token hashes, empty if there are none.
+     */
+    public Set<String> getActiveTokenHashes(String consumerKey) {
+        IssuedTokens tokens = issuedTokens.get(consumerKey);
+        return tokens != null ? tokens.getActiveTokenHashes(System.currentTimeMillis()) : Collections.emptySet();
+    }
+
+    /**
+     * Returns the active token of the consumer key that expires last.
+     *
+     * @param consumerKey consumer key.
+     * @return hash and lifetime of the token, or null if the consumer key has no active token.
+     */
+    public IssuedToken getLatestToken(String consumerKey) {
+        IssuedTokens tokens = issuedTokens.get(consumerKey);
+        return tokens != null ? tokens.getLatestToken(System.currentTimeMillis()) : null;
+    }
+
+    /**
+     * Drops a revoked token from the index.
+     *
+     * @param tokenHash hash of the token.
+     */
+    public void removeToken(String tokenHash) {
+        synchronized (issuedTokens) {
+            issuedTokens.removeIf(tokens -> tokens.remove(tokenHash) && tokens.isEmpty());
+        }
+    }
+
+    /**
+     * Drops all the tokens of a consumer key from the index.
+     *
+     * @param consumerKey consumer key whose tokens were revoked.
+     */
+    public void removeConsumerKey(String consumerKey) {
+        issuedTokens.remove(consumerKey);
+    }
+
+    public int size() {
+        return issuedTokens.size();
+    }
+
+    /**
+     * Drops the expired tokens, and the consumer keys left without tokens.
+     */
+    public void prune() {
+        long now = System.currentTimeMillis();
+        synchronized (issuedTokens) {
+            issuedTokens.removeExpired();
+            issuedTokens.removeIf(tokens -> tokens.prune(now));
+        }
+    }
+
+    /**
+     * Stops the background prune of the index.
+     */
+    public void shutdown() {
+        scheduledPrune.cancel(false);
+    }
+
+    /**
+     * Hash and lifetime of an indexed token.
+     */
+    public static class IssuedToken {
+        private final String tokenHash;
+        private final long issuedTime;
+        private final long expiryTime;
+
+        IssuedToken(String tokenHash, long issuedTime, long expiryTime) {
+            this.tokenHash = tokenHash;
+            this.issuedTime = issuedTime;
+            this.expiryTime = expiryTime;
+        }
+
+        public String getTokenHash() {
+            return tokenHash;
+        }
+
+        public long getIssuedTime() {
+            return issuedTime;
+        }
+
+        public long getExpiryTime() {
+            return expiryTime;
+        }
+    }
+
+    /**
+     * Tokens of one consumer key, keyed by their hash.
+     */
+    private static class IssuedTokens {
+        private final Map<String, IssuedToken> tokens = new LinkedHashMap<>();
+
+        synchronized void add(IssuedToken token, int maxTokens, long now) {
+            prune(now);
+            tokens.put(token.tokenHash, token);
+            while (tokens.size() > maxTokens) {
+                tokens.remove(getFirstExpiringTokenHash());
+            }
+        }
+
+        synchronized boolean remove(String tokenHash) {
+            return tokens.remove(tokenHash) != null;
+        }
+
+        synchronized boolean isEmpty() {
+            return tokens.isEmpty();
+        }
+
+        synchronized Set<String> getActiveTokenHashes(long now) {
+            Set<String> tokenHashes = new HashSet<>();
+            for (IssuedToken token : tokens.values()) {
+                if (token.expiryTime > now) {
+                    tokenHashes.add(token.tokenHash);
+                }
+            }
+            return tokenHashes;
+        }
+
+        synchronized IssuedToken getLatestToken(long now) {
+            IssuedToken latestToken = null;
+            for (IssuedToken token : tokens.values()) {
+                if (token.expiryTime > now && (latestToken == null || token.expiryTime > latestToken.expiryTime)) {
+                    latestToken = token;
+                }
+            }
+            return latestToken;
+        }
+
+        synchronized long getLatestExpiryTime() {
+            long latestExpiryTime = 0;
+            for (IssuedToken token : tokens.values()) {
+                latestExpiryTime = Math.max(latestExpiryTime, token.expiryTime);
+            }
+            return latestExpiryTime;
+        }
+
+        /**
+         * Drops the expired tokens.
+         *
+         * @return true if no token is left.
+         */
+        synchronized boolean prune(long now) {
+            Iterator<IssuedToken> iterator = tokens.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().expiryTime <= now) {
+                    iterator.remove();
+                }
+            }
+            return tokens.isEmpty();
+        }
+
+        private String getFirstExpiringTokenHash() {
+            IssuedToken firstExpiringToken = null;
+            for (IssuedToken token : tokens.values()) {
+                if (firstExpiringToken == null || token.expiryTime < firstExpiringToken.expiryTime) {
+                    firstExpiringToken = token;
+                }
+            }
+            return firstExpiringToken != null ? firstExpiringToken.tokenHash : null;
+        }
+    }
+
+    /**
+     * Background prune task. Holds the index weakly so that a discarded key manager does not keep pruning forever.
+     */
+    private static class PruneTask implements Runnable {
+        private final WeakReference<Auth0IssuedTokenIndex> index;
+
+        PruneTask(Auth0IssuedTokenIndex index) {
+            this.index = new WeakReference<>(index);
+        }
+
+        @Override
+        public void run() {
+            Auth0IssuedTokenIndex issuedTokenIndex = index.get();
+            if (issuedTokenIndex == null) {
+                // Throwing stops the periodic execution of the task.
+                throw new IllegalStateException("Issued token index is no longer in use");
+            }
+            issuedTokenIndex.prune();
+        }
+    }
+}
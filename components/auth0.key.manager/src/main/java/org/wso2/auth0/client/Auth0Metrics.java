@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.auth0.client.model.Auth0APIKeyInterceptor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Records the latency, status codes, retries, in-flight requests and circuit breaker state of the calls made to each
+ * Auth0 endpoint, and exports them as an MXBean on the platform MBean server.
+ */
+public class Auth0Metrics implements Auth0MetricsMXBean {
+    private static final Log log = LogFactory.getLog(Auth0Metrics.class);
+    private static final String OBJECT_NAME_DOMAIN = "org.wso2.auth0";
+    private static final String IO_ERROR_STATUS = "IOException";
+    private static final String CLOSED_CIRCUIT_STATE = "CLOSED";
+    private static final String OPEN_CIRCUIT_STATE = "OPEN";
+
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private ObjectName objectName;
+    // Held weakly, since the metrics stay registered until the sweep of the shared resources unregisters them.
+    private volatile WeakReference<Auth0APIKeyInterceptor> managementTokenInterceptor = new WeakReference<>(null);
+
+    /**
+     * Records the start of a call.
+     *
+     * @param endpoint endpoint being called.
+     */
+    public void recordRequestStart(String endpoint) {
+        getEndpointMetrics(endpoint).inFlightRequests.incrementAndGet();
+    }
+
+    /**
+     * Records the end of a call.
+     *
+     * @param endpoint endpoint that was called.
+     * @param status   status code of the response, or -1 if the call failed without a response.
+     * @param latency  duration of the call in nanoseconds.
+     */
+    public void recordRequestEnd(String endpoint, int status, long latency) {
+        EndpointMetrics endpointMetrics = getEndpointMetrics(endpoint);
+        endpointMetrics.inFlightRequests.decrementAndGet();
+        endpointMetrics.requestCount.incrementAndGet();
+        endpointMetrics.totalLatency.addAndGet(latency);
+        endpointMetrics.maxLatency.accumulateAndGet(latency, Math::max);
+        if (status < 0 || status >= 400) {
+            endpointMetrics.failureCount.incrementAndGet();
+        }
+        endpointMetrics.statusCounts.computeIfAbsent(status < 0 ? IO_ERROR_STATUS : String.valueOf(status),
+                key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Records that a failed call is going to be retried.
+     *
+     * @param endpoint endpoint that was called.
+     */
+    public void recordRetry(String endpoint) {
+        getEndpointMetrics(endpoint).retryCount.incrementAndGet();
+    }
+
+    /**
+     * Records the end of a call rejected because the circuit of the endpoint is open.
+     *
+     * @param endpoint endpoint that was called.
+     */
+    public void recordRejectedCall(String endpoint) {
+        EndpointMetrics endpointMetrics = getEndpointMetrics(endpoint);
+        endpointMetrics.inFlightRequests.decrementAndGet();
+        endpointMetrics.rejectedCount.incrementAndGet();
+    }
+
+    /**
+     * Records a call that joined an identical call in flight instead of reaching the endpoint.
+     *
+     * @param endpoint endpoint that was not called.
+     */
+    public void recordCoalescedCall(String endpoint) {
+        getEndpointMetrics(endpoint).coalescedCount.incrementAndGet();
+    }
+
+    /**
+     * Records a state transition of the circuit breaker of an endpoint.
+     *
+     * @param endpoint endpoint of the circuit.
+     * @param state    new state of the circuit.
+     */
+    public void recordCircuitStateChange(String endpoint, String state) {
+        EndpointMetrics endpointMetrics = getEndpointMetrics(endpoint);
+        endpointMetrics.circuitState = state;
+        if (OPEN_CIRCUIT_STATE.equals(state)) {
+            endpointMetrics.circuitOpenCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    public Map<String, Auth0EndpointStatistics> getEndpointStatistics() {
+        Map<String, Auth0EndpointStatistics> statistics = new TreeMap<>();
+        for (Map.Entry<String, EndpointMetrics> endpoint : endpoints.entrySet()) {
+            statistics.put(endpoint.getKey(), endpoint.getValue().getStatistics());
+        }
+        return statistics;
+    }
+
+    @Override
+    public long getRequestCount() {
+        return endpoints.values().stream().mapToLong(endpoint -> endpoint.requestCount.get()).sum();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return endpoints.values().stream().mapToLong(endpoint -> endpoint.failureCount.get()).sum();
+    }
+
+    @Override
+    public long getRetryCount() {
+        return endpoints.values().stream().mapToLong(endpoint -> endpoint.retryCount.get()).sum();
+    }
+
+    @Override
+    public long getInFlightRequests() {
+        return endpoints.values().stream().mapToLong(endpoint -> endpoint.inFlightRequests.get()).sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return endpoints.values().stream().mapToLong(endpoint -> endpoint.rejectedCount.get()).sum();
+    }
+
+    @Override
+    public long getCoalescedCount() {
+        return endpoints.values().stream().mapToLong(endpoint -> endpoint.coalescedCount.get()).sum();
+    }
+
+    @Override
+    public int getOpenCircuitCount() {
+        return (int) endpoints.values().stream()
+                .filter(endpoint -> OPEN_CIRCUIT_STATE.equals(endpoint.circuitState)).count();
+    }
+
+    @Override
+    public String getManagementTokenState() {
+        Auth0APIKeyInterceptor interceptor = managementTokenInterceptor.get();
+        return interceptor != null ? interceptor.getHealthState().name() :
+                Auth0APIKeyInterceptor.HealthState.UNKNOWN.name();
+    }
+
+    @Override
+    public int getManagementTokenConsecutiveFailures() {
+        Auth0APIKeyInterceptor interceptor = managementTokenInterceptor.get();
+        return interceptor != null ? interceptor.getConsecutiveFailures() : 0;
+    }
+
+    @Override
+    public long getManagementTokenFetchCount() {
+        Auth0APIKeyInterceptor interceptor = managementTokenInterceptor.get();
+        return interceptor != null ? interceptor.getRefreshCount() : 0;
+    }
+
+    @Override
+    public long getManagementTokenSharedCount() {
+        Auth0APIKeyInterceptor interceptor = managementTokenInterceptor.get();
+        return interceptor != null ? interceptor.getSharedTokenCount() : 0;
+    }
+
+    /**
+     * Sets the interceptor whose management API token state is reported.
+     *
+     * @param interceptor interceptor adding the management API token to the requests.
+     */
+    public void setManagementTokenInterceptor(Auth0APIKeyInterceptor interceptor) {
+        this.managementTokenInterceptor = new WeakReference<>(interceptor);
+    }
+
+    @Override
+    public void reset() {
+        for (EndpointMetrics endpoint : endpoints.values()) {
+            endpoint.reset();
+        }
+    }
+
+    /**
+     * Registers the metrics on the platform MBean server under the given key manager name, replacing the metrics of
+     * an earlier configuration of the same key manager. Failures are logged since the metrics are not essential.
+     *
+     * @param tenantDomain tenant domain of the key manager.
+     * @param name         name of the key manager.
+     */
+    public synchronized void register(String tenantDomain, String name) {
+        unregister();
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName newObjectName = new ObjectName(OBJECT_NAME_DOMAIN + ":type=KeyManager,tenant="
+                    + ObjectName.quote(String.valueOf(tenantDomain)) + ",name="
+                    + ObjectName.quote(String.valueOf(name)));
+            if (mBeanServer.isRegistered(newObjectName)) {
+                mBeanServer.unregisterMBean(newObjectName);
+            }
+            mBeanServer.registerMBean(this, newObjectName);
+            objectName = newObjectName;
+        } catch (JMException e) {
+            log.warn("Error while registering the metrics of the Auth0 key manager " + name, e);
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server.
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            log.warn("Error while unregistering the metrics " + objectName, e);
+        }
+        objectName = null;
+    }
+
+    private EndpointMetrics getEndpointMetrics(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, key -> new EndpointMetrics());
+    }
+
+    private static class EndpointMetrics {
+        private final AtomicLong requestCount = new AtomicLong();
+        private final AtomicLong failureCount = new AtomicLong();
+        private final AtomicLong retryCount = new AtomicLong();
+        private final AtomicLong inFlightRequests = new AtomicLong();
+        private final AtomicLong totalLatency = new AtomicLong();
+        private final AtomicLong maxLatency = new AtomicLong();
+        private final AtomicLong rejectedCount = new AtomicLong();
+        private final AtomicLong circuitOpenCount = new AtomicLong();
+        private final AtomicLong coalescedCount = new AtomicLong();
+        private final Map<String, AtomicLong> statusCounts = new ConcurrentHashMap<>();
+        private volatile String circuitState = CLOSED_CIRCUIT_STATE;
+
+        Auth0EndpointStatistics getStatistics() {
+            long requests = requestCount.get();
+            long coalescedCalls = coalescedCount.get();
+            Map<String, Long> statuses = new HashMap<>();
+            for (Map.Entry<String, AtomicLong> statusCount : statusCounts.entrySet()) {
+                statuses.put(statusCount.getKey(), statusCount.getValue().get());
+            }
+            return new Auth0EndpointStatistics(requests, failureCount.get(), retryCount.get(),
+                    inFlightRequests.get(), requests > 0 ? toMillis(totalLatency.get()) / requests : 0,
+                    toMillis(maxLatency.get()), statuses, rejectedCount.get(), circuitOpenCount.get(), circuitState,
+                    coalescedCalls, coalescedCalls > 0 ? (double) coalescedCalls / (requests + coalescedCalls) : 0);
+        }
+
+        void reset() {
+            requestCount.set(0);
+            failureCount.set(0);
+            retryCount.set(0);
+            totalLatency.set(0);
+            maxLatency.set(0);
+            rejectedCount.set(0);
+            circuitOpenCount.set(0);
+            coalescedCount.set(0);
+            statusCounts.clear();
+        }
+
+        private static double toMillis(long nanos) {
+            return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
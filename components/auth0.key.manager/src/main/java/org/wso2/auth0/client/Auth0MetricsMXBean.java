@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import java.util.Map;
+
+/**
+ * Management interface through which the metrics of the calls made by the Auth0 key manager are exported over JMX.
+ */
+public interface Auth0MetricsMXBean {
+
+    /**
+     * @return statistics of each endpoint, keyed by the client interface and method, such as
+     * {@code Auth0DCRClient.createApplication}.
+     */
+    Map<String, Auth0EndpointStatistics> getEndpointStatistics();
+
+    long getRequestCount();
+
+    long getFailureCount();
+
+    long getRetryCount();
+
+    long getInFlightRequests();
+
+    /**
+     * @return number of calls rejected because the circuit of their endpoint was open.
+     */
+    long getRejectedCount();
+
+    /**
+     * @return number of reads that joined an identical read in flight instead of calling Auth0.
+     */
+    long getCoalescedCount();
+
+    /**
+     * @return number of endpoints whose circuit is open. Circuits letting trial calls through are not counted.
+     */
+    int getOpenCircuitCount();
+
+    /**
+     * @return state of the management API token: UNKNOWN until it is first fetched, HEALTHY while the last fetch
+     * succeeded and UNHEALTHY while it failed.
+     */
+    String getManagementTokenState();
+
+    /**
+     * @return number of fetches of the management API token that failed since the last successful one.
+     */
+    int getManagementTokenConsecutiveFailures();
+
+    /**
+     * @return number of management API tokens fetched from Auth0 by this node.
+     */
+    long getManagementTokenFetchCount();
+
+    /**
+     * @return number of management API tokens taken from the token store, published there by another node.
+     */
+    long getManagementTokenSharedCount();
+
+    /**
+     * Clears the counters of all the endpoints. Requests in flight are still tracked.
+     */
+    void reset();
+}
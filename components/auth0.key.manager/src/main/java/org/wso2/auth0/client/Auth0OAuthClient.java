@@ -18,23 +18,46 @@
 
 package org.wso2.auth0.client;
 
-import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import feign.Client;
 import feign.Feign;
 import feign.FeignException;
+import feign.Request;
 import feign.codec.ErrorDecoder;
 import feign.gson.GsonDecoder;
 import feign.gson.GsonEncoder;
 import feign.okhttp.OkHttpClient;
 import feign.slf4j.Slf4jLogger;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Protocol;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.auth0.client.model.Auth0AccessTokenResponse;
 import org.wso2.auth0.client.model.Auth0APIKeyInterceptor;
+import org.wso2.auth0.client.model.Auth0CircuitBreakerClient;
+import org.wso2.auth0.client.model.Auth0CircuitOpenException;
 import org.wso2.auth0.client.model.Auth0ClientInfo;
+import org.wso2.auth0.client.model.Auth0ClientPage;
 import org.wso2.auth0.client.model.Auth0ClientGrant;
+import org.wso2.auth0.client.model.Auth0ClientGrantAsyncClient;
 import org.wso2.auth0.client.model.Auth0ClientGrantInfo;
+import org.wso2.auth0.client.model.Auth0ClientGrantPage;
+import org.wso2.auth0.client.model.Auth0DCRAsyncClient;
 import org.wso2.auth0.client.model.Auth0DCRClient;
+import org.wso2.auth0.client.model.Auth0Gson;
+import org.wso2.auth0.client.model.Auth0JWKSClient;
+import org.wso2.auth0.client.model.Auth0ManagementTokenException;
+import org.wso2.auth0.client.model.Auth0ManagementTokenStore;
+import org.wso2.auth0.client.model.Auth0MetricsCapability;
+import org.wso2.auth0.client.model.Auth0RateLimitErrorDecoder;
+import org.wso2.auth0.client.model.Auth0RateLimitedClient;
+import org.wso2.auth0.client.model.Auth0RateLimiter;
+import org.wso2.auth0.client.model.Auth0ResourceServerClient;
+import org.wso2.auth0.client.model.Auth0ResourceServerInfo;
+import org.wso2.auth0.client.model.Auth0ResourceServerScope;
+import org.wso2.auth0.client.model.Auth0Retryer;
 import org.wso2.auth0.client.model.Auth0TokenClient;
 import org.wso2.carbon.apimgt.api.APIManagementException;
 import org.wso2.carbon.apimgt.api.model.API;
@@ -53,24 +76,100 @@ import org.wso2.carbon.user.core.UserCoreConstants;
 import org.wso2.carbon.user.core.util.UserCoreUtil;
 import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Auth0 Client Implementation.
  */
 public class Auth0OAuthClient extends AbstractKeyManager {
     private static final Log log = LogFactory.getLog(Auth0OAuthClient.class);
+    /**
+     * Parameters the feign clients, the management API token interceptor and the async workers are built from.
+     */
+    private static final List<String> CLIENT_PARAMETERS = Collections.unmodifiableList(Arrays.asList(
+            Auth0Constants.CONNECT_TIMEOUT, Auth0Constants.READ_TIMEOUT, Auth0Constants.CONNECTION_POOL_MAX_IDLE,
+            Auth0Constants.CONNECTION_KEEP_ALIVE, Auth0Constants.MAX_REQUESTS_PER_HOST, Auth0Constants.ENABLE_HTTP2,
+            Auth0Constants.CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD,
+            Auth0Constants.CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD, Auth0Constants.CIRCUIT_BREAKER_SLOW_CALL_DURATION,
+            Auth0Constants.CIRCUIT_BREAKER_WAIT_DURATION, Auth0Constants.CIRCUIT_BREAKER_WINDOW_SIZE,
+            Auth0Constants.MANAGEMENT_API_RATE_LIMIT,
+            Auth0Constants.MANAGEMENT_API_MAX_ATTEMPTS, APIConstants.KeyManager.TOKEN_ENDPOINT, Auth0Constants.AUDIENCE,
+            Auth0Constants.CLIENT_ID, Auth0Constants.CLIENT_SECRET, Auth0Constants.TOKEN_REFRESH_RATIO));
+    private static final Map<String, WeakReference<Auth0OAuthClient>> loadedKeyManagers = new ConcurrentHashMap<>();
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    /**
+     * Last token hashed by each thread with its hash, since the gateway checks whether it can handle a token and then
+     * validates it on the same thread.
+     */
+    private static final ThreadLocal<String[]> lastTokenHash = new ThreadLocal<>();
+    private static final Type ADDITIONAL_PROPERTIES_TYPE = new TypeToken<Map<String, Object>>() {
+    }.getType();
     private Auth0DCRClient auth0DCRClient;
     private Auth0ClientGrant auth0ClientGrant;
     private Auth0TokenClient auth0TokenClient;
+    private Auth0DCRAsyncClient auth0DCRAsyncClient;
+    private Auth0ClientGrantAsyncClient auth0ClientGrantAsyncClient;
+    private Auth0SingleFlight<String, Auth0ClientInfo> applicationReads;
+    private Auth0SingleFlight<String, Auth0ClientGrantInfo[]> clientGrantReads;
+    private ExecutorService backgroundExecutor;
+    private Auth0APIKeyInterceptor auth0APIKeyInterceptor;
+    private Auth0Cache<String, Auth0ClientGrantInfo[]> clientGrantCache;
+    private Auth0Cache<String, Auth0AccessTokenResponse> tokenResponseCache;
+    private long tokenCacheSafetyMargin;
+    private Auth0TokenValidator tokenValidator;
+    private Auth0ResourceServerClient auth0ResourceServerClient;
+    private Auth0ScopeRegistry scopeRegistry;
+    private Auth0ResourceServerSynchronizer resourceServerSynchronizer;
+    private Auth0ApplicationReconciler applicationReconciler;
+    private String keyManagerMarker;
+    private Auth0ManagementTokenStore managementTokenStore;
+    private String httpClientKey;
+    private String apiKeyInterceptorKey;
+    private String rateLimiterKey;
+    private Client jwksHttpClient;
+    private Request.Options jwksRequestOptions;
+    private Map<String, String> loadedParameters;
+    private final Auth0Cache<String, Auth0TokenValidator.ValidatedToken> validatedTokenCache =
+            new Auth0Cache<>(Auth0Constants.VALIDATED_TOKEN_CACHE_MAX_SIZE);
+    private Auth0Metrics metrics = new Auth0Metrics();
+    private final Auth0IssuedTokenIndex issuedTokenIndex = new Auth0IssuedTokenIndex(
+            Auth0Constants.ISSUED_TOKEN_INDEX_MAX_CONSUMER_KEYS,
+            Auth0Constants.ISSUED_TOKEN_INDEX_MAX_TOKENS_PER_CONSUMER_KEY,
+            TimeUnit.SECONDS.toMillis(Auth0Constants.ISSUED_TOKEN_INDEX_PRUNE_INTERVAL_SECONDS));
 
     /**
      * Returns base64 encoded credentials.
@@ -92,58 +191,357 @@ public class Auth0OAuthClient extends AbstractKeyManager {
         return encodedCredentials;
     }
 
+    /**
+     * Returns the hex encoded SHA-256 hash of a value.
+     *
+     * @param value value to hash.
+     * @return String hex encoded hash.
+     */
+    public static String getHashedValue(String value) throws APIManagementException {
+
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance(Auth0Constants.SHA_256);
+            byte[] hash = messageDigest.digest(value.getBytes(StandardCharsets.UTF_8));
+            char[] hexValue = new char[hash.length * 2];
+            for (int i = 0; i < hash.length; i++) {
+                hexValue[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xf];
+                hexValue[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xf];
+            }
+            return new String(hexValue);
+        } catch (NoSuchAlgorithmException e) {
+            throw new APIManagementException(Auth0Constants.ERROR_HASHING_ALGORITHM_NOT_SUPPORTED, e);
+        }
+    }
+
+    /**
+     * Returns the hash of an access token, reusing the hash computed last by the same thread when it is for the same
+     * token.
+     *
+     * @param accessToken access token.
+     * @return String hex encoded hash.
+     */
+    private static String getTokenHash(String accessToken) throws APIManagementException {
+        String[] lastHash = lastTokenHash.get();
+        if (lastHash != null && lastHash[0].equals(accessToken)) {
+            return lastHash[1];
+        }
+        String tokenHash = getHashedValue(accessToken);
+        lastTokenHash.set(new String[]{accessToken, tokenHash});
+        return tokenHash;
+    }
+
     @Override
     public OAuthApplicationInfo createApplication(OAuthAppRequest oAuthAppRequest) throws APIManagementException {
         OAuthApplicationInfo oAuthApplicationInfo = oAuthAppRequest.getOAuthApplicationInfo();
-        Auth0ClientInfo clientInfo = createClientInfoFromOauthApplicationInfo(oAuthApplicationInfo);
-        Auth0ClientInfo createdApplication = auth0DCRClient.createApplication(clientInfo);
-        if (createdApplication != null) {
-            OAuthApplicationInfo createdOauthApplication = createOAuthAppInfoFromResponse(createdApplication);
-            String audience = getAudienceFromAuthAppRequest(oAuthApplicationInfo);
-            Auth0ClientGrantInfo auth0ClientGrantInfo = new Auth0ClientGrantInfo(createdApplication.getClientId(),
-                    audience);
-            Auth0ClientGrantInfo addedClientGrant = null;
-            if (!audience.isEmpty()) {
-                addedClientGrant = auth0ClientGrant.createClientGrant(auth0ClientGrantInfo);
-            } else {
-                log.warn("Did not provide the audience");
-                return createdOauthApplication;
-            }
-            if (addedClientGrant == null) {
-                log.warn("Error while adding the audience");
-            }
-            return createdOauthApplication;
+        Map<String, Object> additionalProperties = getAdditionalProperties(oAuthApplicationInfo);
+        Auth0ClientInfo clientInfo = createClientInfoFromOauthApplicationInfo(oAuthApplicationInfo,
+                additionalProperties);
+        String audience = getAudienceFromAuthAppRequest(additionalProperties);
+        return invoke(() -> {
+            Auth0ClientInfo createdApplication = auth0DCRClient.createApplication(clientInfo);
+            if (createdApplication == null) {
+                return null;
+            }
+            if (StringUtils.isEmpty(audience)) {
+                return createOAuthAppInfoWithoutAudience(createdApplication);
+            }
+            return createOAuthAppInfoFromClientGrant(createdApplication, audience, auth0ClientGrant.createClientGrant(
+                    new Auth0ClientGrantInfo(createdApplication.getClientId(), audience)));
+        });
+    }
+
+    /**
+     * Creates the Auth0 client of the application and grants it the requested audience without blocking the caller.
+     *
+     * @param oAuthAppRequest application creation request.
+     * @return future of the created application, completed with null if Auth0 did not return the client.
+     */
+    public CompletableFuture<OAuthApplicationInfo> createApplicationAsync(OAuthAppRequest oAuthAppRequest) {
+        return createApplicationAsync(oAuthAppRequest, null);
+    }
+
+    /**
+     * Creates the Auth0 client of the application and grants it the requested audience without blocking the caller.
+     *
+     * @param oAuthAppRequest application creation request.
+     * @param clientCreated   called with the client ID as soon as the client is created, before the audience is
+     *                        granted, or null.
+     * @return future of the created application, completed with null if Auth0 did not return the client.
+     */
+    private CompletableFuture<OAuthApplicationInfo> createApplicationAsync(OAuthAppRequest oAuthAppRequest,
+                                                                           Consumer<String> clientCreated) {
+        OAuthApplicationInfo oAuthApplicationInfo = oAuthAppRequest.getOAuthApplicationInfo();
+        Map<String, Object> additionalProperties = getAdditionalProperties(oAuthApplicationInfo);
+        Auth0ClientInfo clientInfo = createClientInfoFromOauthApplicationInfo(oAuthApplicationInfo,
+                additionalProperties);
+        String audience = getAudienceFromAuthAppRequest(additionalProperties);
+        return auth0DCRAsyncClient.createApplication(clientInfo).thenCompose(createdApplication -> {
+            if (createdApplication == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (clientCreated != null) {
+                clientCreated.accept(createdApplication.getClientId());
+            }
+            return grantAudienceAsync(createdApplication, audience);
+        });
+    }
+
+    /**
+     * Completes the creation of an application whose client was created by an earlier run, by granting it the
+     * requested audience. A new client is created only when the earlier one no longer exists.
+     *
+     * @param oAuthAppRequest application creation request.
+     * @param clientId        client ID of the client created by the earlier run.
+     * @param clientCreated   called with the client ID when a new client is created, or null.
+     * @return future of the created application, completed with null if Auth0 did not return the client.
+     */
+    private CompletableFuture<OAuthApplicationInfo> resumeApplicationAsync(OAuthAppRequest oAuthAppRequest,
+                                                                           String clientId,
+                                                                           Consumer<String> clientCreated) {
+        String audience = getAudienceFromAuthAppRequest(getAdditionalProperties(
+                oAuthAppRequest.getOAuthApplicationInfo()));
+        return auth0DCRAsyncClient.getApplication(clientId).handle((createdApplication, e) -> {
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (cause instanceof FeignException && ((FeignException) cause).status() == 404) {
+                log.warn("Auth0 client " + clientId + " created by an earlier run no longer exists");
+                return createApplicationAsync(oAuthAppRequest, clientCreated);
+            }
+            if (cause != null) {
+                CompletableFuture<OAuthApplicationInfo> failure = new CompletableFuture<>();
+                failure.completeExceptionally(cause);
+                return failure;
+            }
+            if (createdApplication == null) {
+                return CompletableFuture.<OAuthApplicationInfo>completedFuture(null);
+            }
+            return grantAudienceAsync(createdApplication, audience).exceptionally(grantFailure -> {
+                Throwable grantCause = grantFailure instanceof CompletionException ? grantFailure.getCause() :
+                        grantFailure;
+                if (grantCause instanceof FeignException && ((FeignException) grantCause).status() == 409) {
+                    // The grant was created by the earlier run after all.
+                    clientGrantCache.remove(clientId);
+                    return createOAuthAppInfoFromResponse(createdApplication, audience);
+                }
+                throw new CompletionException(grantCause);
+            });
+        }).thenCompose(application -> application);
+    }
+
+    /**
+     * Grants the requested audience to a created client.
+     *
+     * @param createdApplication created client.
+     * @param audience           audience to grant, or empty to grant none.
+     * @return future of the created application.
+     */
+    private CompletableFuture<OAuthApplicationInfo> grantAudienceAsync(Auth0ClientInfo createdApplication,
+                                                                       String audience) {
+        if (StringUtils.isEmpty(audience)) {
+            return CompletableFuture.completedFuture(createOAuthAppInfoWithoutAudience(createdApplication));
         }
-        return null;
+        Auth0ClientGrantInfo auth0ClientGrantInfo = new Auth0ClientGrantInfo(createdApplication.getClientId(),
+                audience);
+        return auth0ClientGrantAsyncClient.createClientGrant(auth0ClientGrantInfo).thenApply(addedClientGrant ->
+                createOAuthAppInfoFromClientGrant(createdApplication, audience, addedClientGrant));
+    }
+
+    private OAuthApplicationInfo createOAuthAppInfoWithoutAudience(Auth0ClientInfo createdApplication) {
+        log.warn("Did not provide the audience");
+        clientGrantCache.put(createdApplication.getClientId(), new Auth0ClientGrantInfo[0]);
+        return createOAuthAppInfoFromResponse(createdApplication, "");
+    }
+
+    private OAuthApplicationInfo createOAuthAppInfoFromClientGrant(Auth0ClientInfo createdApplication, String audience,
+                                                                   Auth0ClientGrantInfo addedClientGrant) {
+        if (addedClientGrant == null) {
+            log.warn("Error while adding the audience");
+            return createOAuthAppInfoFromResponse(createdApplication, "");
+        }
+        clientGrantCache.put(createdApplication.getClientId(), new Auth0ClientGrantInfo[]{addedClientGrant});
+        return createOAuthAppInfoFromResponse(createdApplication, audience);
     }
 
     /**
-     * This method will extract Audience from the {@code OAuthApplicationInfo} object.
+     * Creates many applications with at most the given number of them in progress at a time. The calls still go
+     * through the rate limit of the Management API. Failures are reported per application instead of stopping the
+     * run, and applications already recorded in the checkpoint are skipped, so an interrupted run can be resumed by
+     * calling this again with the same checkpoint. The client of an application is recorded as soon as it is created,
+     * so that a resumed run only grants the audience to a client whose grant was not created, instead of creating a
+     * second client.
      *
-     * @param oAuthApplicationInfo oauth Application info object when creating an application.
-     * @return Audience specified in the developer portal application configuration section.
+     * @param oAuthAppRequests application creation requests keyed by a caller defined unique key.
+     * @param parallelism      maximum number of applications created concurrently.
+     * @param checkpoint       progress of earlier runs, updated as applications are created.
+     * @return outcome of each request.
+     */
+    public Auth0BulkProvisioningResult createApplications(Map<String, OAuthAppRequest> oAuthAppRequests,
+                                                          int parallelism, Auth0ProvisioningCheckpoint checkpoint) {
+        Auth0BulkProvisioningResult result = new Auth0BulkProvisioningResult();
+        Semaphore permits = new Semaphore(Math.max(1, parallelism));
+        List<CompletableFuture<?>> inProgress = new ArrayList<>();
+        boolean interrupted = false;
+        for (Map.Entry<String, OAuthAppRequest> entry : oAuthAppRequests.entrySet()) {
+            String key = entry.getKey();
+            if (interrupted) {
+                result.addPendingKey(key);
+                continue;
+            }
+            if (checkpoint != null && checkpoint.isCompleted(key)) {
+                result.addSkippedKey(key);
+                continue;
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                interrupted = true;
+                result.addPendingKey(key);
+                continue;
+            }
+            Consumer<String> clientCreated = checkpoint != null ? clientId -> checkpoint.markClientCreated(key,
+                    clientId) : null;
+            String createdClientId = checkpoint != null ? checkpoint.getCreatedClientId(key) : null;
+            CompletableFuture<OAuthApplicationInfo> creation;
+            try {
+                creation = createdClientId != null ?
+                        resumeApplicationAsync(entry.getValue(), createdClientId, clientCreated) :
+                        createApplicationAsync(entry.getValue(), clientCreated);
+            } catch (RuntimeException e) {
+                creation = new CompletableFuture<>();
+                creation.completeExceptionally(e);
+            }
+            inProgress.add(creation.whenComplete((createdApplication, e) -> {
+                permits.release();
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                if (cause != null) {
+                    log.error("Error while creating the application " + key, cause);
+                    result.addFailure(key, cause);
+                } else if (createdApplication == null) {
+                    result.addFailure(key, new APIManagementException("Auth0 did not return the created client"));
+                } else {
+                    result.addCreatedApplication(key, createdApplication);
+                    if (checkpoint != null) {
+                        checkpoint.markCompleted(key, createdApplication);
+                    }
+                }
+            }));
+        }
+        for (CompletableFuture<?> creation : inProgress) {
+            try {
+                creation.join();
+            } catch (CompletionException | CancellationException ignored) {
+                // Recorded in the result by the completion handler.
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This method will extract the additional properties from the {@code OAuthApplicationInfo} object.
+     *
+     * @param oAuthApplicationInfo oauth Application info object when creating or updating an application.
+     * @return Additional properties specified in the developer portal application configuration section.
      */
-    private String getAudienceFromAuthAppRequest(OAuthApplicationInfo oAuthApplicationInfo) {
+    static Map<String, Object> getAdditionalProperties(OAuthApplicationInfo oAuthApplicationInfo) {
         Object parameter = oAuthApplicationInfo.getParameter(APIConstants.JSON_ADDITIONAL_PROPERTIES);
-        Map<String, Object> additionalProperties = new HashMap<>();
         if (parameter instanceof String) {
-            additionalProperties = new Gson().fromJson((String) parameter, Map.class);
+            Map<String, Object> additionalProperties = Auth0Gson.getGson().fromJson((String) parameter,
+                    ADDITIONAL_PROPERTIES_TYPE);
+            if (additionalProperties != null) {
+                return additionalProperties;
+            }
         }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * This method will extract Audience from the additional properties of an application.
+     *
+     * @param additionalProperties additional properties of the application.
+     * @return Audience specified in the developer portal application configuration section.
+     */
+    private static String getAudienceFromAuthAppRequest(Map<String, Object> additionalProperties) {
         return (String) additionalProperties.get(Auth0Constants.API_AUDIENCE);
     }
 
+    /**
+     * Returns the audience granted to the client, looking up the client grants only when they are not cached.
+     *
+     * @param clientId client ID of the application.
+     * @return audience of the first client grant, or an empty string when the client has no grants.
+     */
+    private String getClientAudience(String clientId) {
+        Auth0ClientGrantInfo[] clientGrantInfos = clientGrantCache.get(clientId);
+        if (clientGrantInfos == null) {
+            clientGrantInfos = clientGrantReads.execute(clientId, () -> auth0ClientGrant.getClientGrant(clientId));
+            clientGrantCache.put(clientId, clientGrantInfos);
+        }
+        return clientGrantInfos.length > 0 ? clientGrantInfos[0].getAudience() : "";
+    }
+
+    /**
+     * Returns the cache of client grants looked up by this key manager, to inspect its hit and miss statistics.
+     *
+     * @return client grant cache.
+     */
+    public Auth0Cache<String, Auth0ClientGrantInfo[]> getClientGrantCache() {
+        return clientGrantCache;
+    }
+
+    /**
+     * Iterates over all the applications of the Auth0 tenant, page by page. The next page is fetched while the
+     * current one is consumed, so that memory use stays bounded for tenants with many applications.
+     *
+     * @return Iterator throwing the errors of the Management API calls as runtime exceptions.
+     */
+    public Iterator<Auth0ClientInfo> iterateApplications() {
+        Auth0DCRClient dcrClient = auth0DCRClient;
+        return new Auth0PageIterator<>(cursor -> {
+            int page = cursor != null ? Integer.parseInt(cursor) : 0;
+            Auth0ClientPage clientPage = dcrClient.getApplications(page, Auth0Constants.MANAGEMENT_API_PAGE_SIZE);
+            List<Auth0ClientInfo> clients = clientPage.getClients() != null ? clientPage.getClients() :
+                    Collections.emptyList();
+            boolean lastPage = clients.isEmpty() || clientPage.getStart() + clients.size() >= clientPage.getTotal();
+            return new Auth0PageIterator.Page<>(clients, lastPage ? null : String.valueOf(page + 1));
+        }, backgroundExecutor);
+    }
+
+    /**
+     * Iterates over all the client grants of the Auth0 tenant, following the checkpoints returned with each page.
+     *
+     * @return Iterator throwing the errors of the Management API calls as runtime exceptions.
+     */
+    public Iterator<Auth0ClientGrantInfo> iterateClientGrants() {
+        Auth0ClientGrant clientGrantClient = auth0ClientGrant;
+        return new Auth0PageIterator<>(cursor -> {
+            Auth0ClientGrantPage clientGrantPage = clientGrantClient.getClientGrants(cursor,
+                    Auth0Constants.MANAGEMENT_API_PAGE_SIZE);
+            return new Auth0PageIterator.Page<>(clientGrantPage.getClientGrants(),
+                    StringUtils.isNotEmpty(clientGrantPage.getNext()) ? clientGrantPage.getNext() : null);
+        }, backgroundExecutor);
+    }
+
+    /**
+     * Returns the metrics of the calls made to Auth0 by this key manager, which are also exported over JMX.
+     *
+     * @return metrics.
+     */
+    public Auth0Metrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * This method will create {@code OAuthApplicationInfo} object from a Map of Attributes.
      *
      * @param createdApplication Response returned from server as a Map
+     * @param audience           audience granted to the client, or null to look it up from the client grants.
      * @return OAuthApplicationInfo object will return.
      */
-    private OAuthApplicationInfo createOAuthAppInfoFromResponse(Auth0ClientInfo createdApplication) {
+    OAuthApplicationInfo createOAuthAppInfoFromResponse(Auth0ClientInfo createdApplication, String audience) {
         OAuthApplicationInfo appInfo = new OAuthApplicationInfo();
         appInfo.setClientName(createdApplication.getClientName());
         appInfo.setClientId(createdApplication.getClientId());
         appInfo.setClientSecret(createdApplication.getClientSecret());
-        String audience = "";
 
         if (createdApplication.getRedirectUris() != null && createdApplication.getRedirectUris().size() > 0) {
             appInfo.setCallBackURL(String.join(",", createdApplication.getRedirectUris()));
@@ -153,8 +551,9 @@ public class Auth0OAuthClient extends AbstractKeyManager {
         }
         if (StringUtils.isNotEmpty(createdApplication.getClientId())) {
             appInfo.addParameter(ApplicationConstants.OAUTH_CLIENT_ID, createdApplication.getClientId());
-            Auth0ClientGrantInfo[] clientGrantInfos = auth0ClientGrant.getClientGrant(createdApplication.getClientId());
-            audience = clientGrantInfos.length > 0 ? clientGrantInfos[0].getAudience() : "";
+            if (audience == null) {
+                audience = getClientAudience(createdApplication.getClientId());
+            }
         }
         if (StringUtils.isNotEmpty(createdApplication.getClientSecret())) {
             appInfo.addParameter(ApplicationConstants.OAUTH_CLIENT_SECRET, createdApplication.getClientSecret());
@@ -163,9 +562,8 @@ public class Auth0OAuthClient extends AbstractKeyManager {
             appInfo.addParameter(APIConstants.JSON_GRANT_TYPES, String.join(" ", createdApplication.getGrantTypes()));
         }
 
-        String additionalProperties = new Gson().toJson(createdApplication);
-        Map additionalPropMap = new Gson().fromJson(additionalProperties, Map.class);
-        additionalPropMap.put(Auth0Constants.API_AUDIENCE, audience);
+        Map<String, Object> additionalPropMap = createdApplication.toMap();
+        additionalPropMap.put(Auth0Constants.API_AUDIENCE, audience != null ? audience : "");
         appInfo.addParameter(APIConstants.JSON_ADDITIONAL_PROPERTIES, additionalPropMap);
         return appInfo;
     }
@@ -175,9 +573,11 @@ public class Auth0OAuthClient extends AbstractKeyManager {
      * in order to create and update the client.
      *
      * @param oAuthApplicationInfo Object that needs to be converted.
+     * @param additionalProperties additional properties of the application.
      * @return JSON payload.
      */
-    private Auth0ClientInfo createClientInfoFromOauthApplicationInfo(OAuthApplicationInfo oAuthApplicationInfo) {
+    Auth0ClientInfo createClientInfoFromOauthApplicationInfo(OAuthApplicationInfo oAuthApplicationInfo,
+                                                             Map<String, Object> additionalProperties) {
         Auth0ClientInfo clientInfo = new Auth0ClientInfo();
         String userId = (String) oAuthApplicationInfo.getParameter(ApplicationConstants.
                 OAUTH_CLIENT_USERNAME);
@@ -203,11 +603,6 @@ public class Auth0OAuthClient extends AbstractKeyManager {
             String[] calBackUris = callBackURL.split(",");
             clientInfo.setRedirectUris(Arrays.asList(calBackUris));
         }
-        Object parameter = oAuthApplicationInfo.getParameter(APIConstants.JSON_ADDITIONAL_PROPERTIES);
-        Map<String, Object> additionalProperties = new HashMap<>();
-        if (parameter instanceof String) {
-            additionalProperties = new Gson().fromJson((String) parameter, Map.class);
-        }
         if (additionalProperties.containsKey((Auth0Constants.APP_TYPE))) {
             clientInfo.setApplicationType((String) additionalProperties.get((Auth0Constants.APP_TYPE)));
         } else {
@@ -217,98 +612,265 @@ public class Auth0OAuthClient extends AbstractKeyManager {
             clientInfo.setTokenEndpointAuthMethod((String)
                     additionalProperties.get(Auth0Constants.TOKEN_ENDPOINT_AUTH_METHOD));
         }
+        if (keyManagerMarker != null) {
+            // Lets the reconciliation recognize the clients of this key manager and restore their client grant.
+            Map<String, String> clientMetadata = new HashMap<>();
+            clientMetadata.put(Auth0Constants.CLIENT_METADATA_KEY_MANAGER, keyManagerMarker);
+            String audience = getAudienceFromAuthAppRequest(additionalProperties);
+            if (StringUtils.isNotEmpty(audience)) {
+                clientMetadata.put(Auth0Constants.CLIENT_METADATA_AUDIENCE, audience);
+            }
+            clientInfo.setClientMetadata(clientMetadata);
+        }
         return clientInfo;
     }
 
     @Override
     public OAuthApplicationInfo updateApplication(OAuthAppRequest oAuthAppRequest) throws APIManagementException {
         OAuthApplicationInfo oAuthApplicationInfo = oAuthAppRequest.getOAuthApplicationInfo();
-        Auth0ClientInfo clientInfo = createClientInfoFromOauthApplicationInfo(oAuthApplicationInfo);
+        String clientId = oAuthApplicationInfo.getClientId();
+        Map<String, Object> additionalProperties = getAdditionalProperties(oAuthApplicationInfo);
+        Auth0ClientInfo clientInfo = createClientInfoFromOauthApplicationInfo(oAuthApplicationInfo,
+                additionalProperties);
         clientInfo.setClientSecret(oAuthApplicationInfo.getClientSecret());
-        Auth0ClientInfo createdApplication = auth0DCRClient.updateApplication(oAuthApplicationInfo.getClientId(),
-                clientInfo);
-        if (createdApplication != null) {
-            OAuthApplicationInfo createdOAuthApplication = createOAuthAppInfoFromResponse(createdApplication);
-            String audience = getAudienceFromAuthAppRequest(oAuthApplicationInfo);
-            Auth0ClientGrantInfo auth0ClientGrantInfo = new Auth0ClientGrantInfo(createdApplication.getClientId(),
-                    audience);
-            Auth0ClientGrantInfo addedClientGrant = null;
-            if (!audience.isEmpty()) {
-                try {
-                    addedClientGrant = auth0ClientGrant.createClientGrant(auth0ClientGrantInfo);
-                    if (addedClientGrant != null) {
-                        return createdOAuthApplication;
-                    }
-                } catch (FeignException e) {
-                    if (e.status() == 409) {
-                        log.warn("Client grant already exists.");
-                        return createdOAuthApplication;
-                    }
-                }
-            } else {
-                log.warn("Did not provide the audience");
-                return createdOAuthApplication;
+        String audience = getAudienceFromAuthAppRequest(additionalProperties);
+        return invoke(() -> {
+            Auth0ClientInfo updatedApplication = auth0DCRClient.updateApplication(clientId, clientInfo);
+            if (updatedApplication == null || StringUtils.isEmpty(audience)) {
+                return createUpdatedOAuthAppInfo(clientId, updatedApplication, audience, null);
             }
-            if (addedClientGrant == null) {
-                log.warn("Error while adding the audience");
+            Auth0ClientGrantInfo auth0ClientGrantInfo = new Auth0ClientGrantInfo(clientId, audience);
+            Auth0ClientGrantInfo clientGrant;
+            try {
+                clientGrant = auth0ClientGrant.createClientGrant(auth0ClientGrantInfo);
+            } catch (RuntimeException e) {
+                clientGrant = onClientGrantFailure(auth0ClientGrantInfo, e);
             }
-            return createdOAuthApplication;
+            return createUpdatedOAuthAppInfo(clientId, updatedApplication, audience, clientGrant);
+        });
+    }
+
+    /**
+     * Updates the Auth0 client of the application without blocking the caller. The requested audience is granted
+     * once the client is updated, and is not granted when the update fails.
+     *
+     * @param oAuthAppRequest application update request.
+     * @return future of the updated application, completed with null if Auth0 did not return the client.
+     */
+    public CompletableFuture<OAuthApplicationInfo> updateApplicationAsync(OAuthAppRequest oAuthAppRequest) {
+        OAuthApplicationInfo oAuthApplicationInfo = oAuthAppRequest.getOAuthApplicationInfo();
+        String clientId = oAuthApplicationInfo.getClientId();
+        Map<String, Object> additionalProperties = getAdditionalProperties(oAuthApplicationInfo);
+        Auth0ClientInfo clientInfo = createClientInfoFromOauthApplicationInfo(oAuthApplicationInfo,
+                additionalProperties);
+        clientInfo.setClientSecret(oAuthApplicationInfo.getClientSecret());
+        String audience = getAudienceFromAuthAppRequest(additionalProperties);
+        return auth0DCRAsyncClient.updateApplication(clientId, clientInfo).thenCompose(updatedApplication -> {
+            if (updatedApplication == null || StringUtils.isEmpty(audience)) {
+                return CompletableFuture.completedFuture(createUpdatedOAuthAppInfo(clientId, updatedApplication,
+                        audience, null));
+            }
+            Auth0ClientGrantInfo auth0ClientGrantInfo = new Auth0ClientGrantInfo(clientId, audience);
+            return auth0ClientGrantAsyncClient.createClientGrant(auth0ClientGrantInfo)
+                    .exceptionally(e -> onClientGrantFailure(auth0ClientGrantInfo, e))
+                    .thenApply(clientGrant -> createUpdatedOAuthAppInfo(clientId, updatedApplication, audience,
+                            clientGrant));
+        });
+    }
+
+    /**
+     * Handles a failure to grant the audience to an updated client. The update of the application does not fail.
+     *
+     * @param auth0ClientGrantInfo client grant that was being created.
+     * @param e                    failure.
+     * @return the client grant if it already exists, or null.
+     */
+    private static Auth0ClientGrantInfo onClientGrantFailure(Auth0ClientGrantInfo auth0ClientGrantInfo,
+                                                             Throwable e) {
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+        if (cause instanceof FeignException && ((FeignException) cause).status() == 409) {
+            log.warn("Client grant already exists.");
+            return auth0ClientGrantInfo;
         }
+        log.warn("Error while adding the audience", cause);
         return null;
     }
 
+    private OAuthApplicationInfo createUpdatedOAuthAppInfo(String clientId, Auth0ClientInfo updatedApplication,
+                                                           String audience, Auth0ClientGrantInfo clientGrant) {
+        clientGrantCache.remove(clientId);
+        if (updatedApplication == null) {
+            return null;
+        }
+        if (StringUtils.isEmpty(audience)) {
+            log.warn("Did not provide the audience");
+        }
+        // The requested audience is granted unless the grant failed, then it is looked up from the grants.
+        return createOAuthAppInfoFromResponse(updatedApplication, clientGrant != null ? audience : null);
+    }
+
+    /**
+     * Calls Auth0, failing with an {@code APIManagementException} when the call is rejected because Auth0 is
+     * unavailable.
+     *
+     * @param call call to make.
+     * @return result of the call.
+     */
+    private static <T> T invoke(Supplier<T> call) throws APIManagementException {
+        try {
+            return call.get();
+        } catch (Auth0CircuitOpenException | Auth0ManagementTokenException e) {
+            throw new APIManagementException(e.getMessage(), e);
+        }
+    }
+
     @Override
     public void deleteApplication(String clientID) throws APIManagementException {
-        auth0DCRClient.deleteApplication(clientID);
+        if (applicationReconciler != null) {
+            applicationReconciler.forget(clientID);
+        }
+        invoke(() -> {
+            auth0DCRClient.deleteApplication(clientID);
+            return null;
+        });
+        clientGrantCache.remove(clientID);
+        invalidateTokensOfConsumerKey(clientID);
     }
 
     @Override
     public OAuthApplicationInfo retrieveApplication(String clientID) throws APIManagementException {
-        Auth0ClientInfo auth0ClientInfo = auth0DCRClient.getApplication(clientID);
-        OAuthApplicationInfo createdOauthApplication = createOAuthAppInfoFromResponse(auth0ClientInfo);
-        return createdOauthApplication;
+        return invoke(() -> createOAuthAppInfoFromResponse(applicationReads.execute(clientID,
+                () -> auth0DCRClient.getApplication(clientID)), null));
     }
 
     @Override
     public AccessTokenInfo getNewApplicationAccessToken(AccessTokenRequest accessTokenRequest)
             throws APIManagementException {
-        Auth0ClientGrantInfo[] clientGrantInfos = auth0ClientGrant.getClientGrant(accessTokenRequest.getClientId());
-        String audience = clientGrantInfos.length > 0 ? clientGrantInfos[0].getAudience() : "";
+        String audience = invoke(() -> getClientAudience(accessTokenRequest.getClientId()));
         String scopes = accessTokenRequest.getScope() != null && (accessTokenRequest.getScope().length > 0) ?
                 String.join(" ", accessTokenRequest.getScope()) : "";
         String grantType = accessTokenRequest.getGrantType() != null ?
                 accessTokenRequest.getGrantType() : Auth0Constants.GRANT_TYPE_CLIENT_CREDENTIALS;
+        String cacheKey = null;
+        if (tokenResponseCache != null && Auth0Constants.GRANT_TYPE_CLIENT_CREDENTIALS.equals(grantType)) {
+            cacheKey = getTokenCacheKey(accessTokenRequest, audience);
+            Auth0AccessTokenResponse cachedAccessTokenResponse = tokenResponseCache.get(cacheKey);
+            if (cachedAccessTokenResponse != null) {
+                return createAccessTokenInfo(accessTokenRequest, cachedAccessTokenResponse);
+            }
+        }
         String basicCredentials = getEncodedCredentials(accessTokenRequest.getClientId(),
                 accessTokenRequest.getClientSecret());
-        Auth0AccessTokenResponse retrievedAccessTokenResponse = auth0TokenClient.getAccessToken(grantType, audience,
-                scopes, basicCredentials);
+        Auth0AccessTokenResponse retrievedAccessTokenResponse = invoke(() -> auth0TokenClient.getAccessToken(grantType,
+                audience, scopes, basicCredentials));
         if (retrievedAccessTokenResponse != null) {
-            AccessTokenInfo accessTokenInfo = new AccessTokenInfo();
-            accessTokenInfo.setConsumerKey(accessTokenRequest.getClientId());
-            accessTokenInfo.setConsumerSecret(accessTokenRequest.getClientSecret());
-            accessTokenInfo.setAccessToken(retrievedAccessTokenResponse.getAccessToken());
-            if (retrievedAccessTokenResponse.getScope() != null) {
-                accessTokenInfo.setScope(retrievedAccessTokenResponse.getScope().split("\\s+"));
+            retrievedAccessTokenResponse.setCreatedAt(System.currentTimeMillis());
+            issuedTokenIndex.add(accessTokenRequest.getClientId(),
+                    getHashedValue(retrievedAccessTokenResponse.getAccessToken()),
+                    retrievedAccessTokenResponse.getCreatedAt(), retrievedAccessTokenResponse.getCreatedAt()
+                            + TimeUnit.SECONDS.toMillis(retrievedAccessTokenResponse.getExpiry()));
+            if (cacheKey != null) {
+                tokenResponseCache.put(cacheKey, retrievedAccessTokenResponse,
+                        retrievedAccessTokenResponse.getCreatedAt() + TimeUnit.SECONDS.toMillis(
+                                retrievedAccessTokenResponse.getExpiry() - tokenCacheSafetyMargin));
             }
-            accessTokenInfo.setValidityPeriod(retrievedAccessTokenResponse.getExpiry());
-            return accessTokenInfo;
+            return createAccessTokenInfo(accessTokenRequest, retrievedAccessTokenResponse);
         }
         return null;
     }
 
+    /**
+     * Creates the {@code AccessTokenInfo} of a token issued by Auth0. The validity period is the time left until the
+     * token expires, so that tokens served from the cache are not reported with their original lifetime.
+     *
+     * @param accessTokenRequest  token request.
+     * @param accessTokenResponse token issued by Auth0.
+     * @return AccessTokenInfo object.
+     */
+    private AccessTokenInfo createAccessTokenInfo(AccessTokenRequest accessTokenRequest,
+                                                  Auth0AccessTokenResponse accessTokenResponse) {
+        AccessTokenInfo accessTokenInfo = new AccessTokenInfo();
+        accessTokenInfo.setConsumerKey(accessTokenRequest.getClientId());
+        accessTokenInfo.setConsumerSecret(accessTokenRequest.getClientSecret());
+        accessTokenInfo.setAccessToken(accessTokenResponse.getAccessToken());
+        if (accessTokenResponse.getScope() != null) {
+            accessTokenInfo.setScope(accessTokenResponse.getScope().split("\\s+"));
+        }
+        long elapsedTime = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()
+                - accessTokenResponse.getCreatedAt());
+        accessTokenInfo.setValidityPeriod(Math.max(0, accessTokenResponse.getExpiry() - elapsedTime));
+        return accessTokenInfo;
+    }
+
+    /**
+     * Builds the token cache key of a client credentials request. The key is a hash so that client secrets are never
+     * kept in memory as plain text, and the scopes are sorted so that their order does not matter.
+     *
+     * @param accessTokenRequest token request.
+     * @param audience           audience the token is requested for.
+     * @return cache key.
+     */
+    private static String getTokenCacheKey(AccessTokenRequest accessTokenRequest, String audience)
+            throws APIManagementException {
+        String[] scopes = accessTokenRequest.getScope() != null ? accessTokenRequest.getScope().clone() :
+                new String[0];
+        Arrays.sort(scopes);
+        return getHashedValue(accessTokenRequest.getClientId() + "\n" + accessTokenRequest.getClientSecret() + "\n"
+                + audience + "\n" + String.join(" ", scopes));
+    }
+
     @Override
     public String getNewApplicationConsumerSecret(AccessTokenRequest accessTokenRequest) throws APIManagementException {
-        Auth0ClientInfo createdApplication = auth0DCRClient.regenerateClientSecret(accessTokenRequest.getClientId());
+        Auth0ClientInfo createdApplication = invoke(() ->
+                auth0DCRClient.regenerateClientSecret(accessTokenRequest.getClientId()));
         return createdApplication.getClientSecret();
     }
 
 
     /**
-     * This operation is not supported by Auth0
+     * Validates the JWT access token locally against the signing keys of the Auth0 tenant, since Auth0 does not
+     * offer token introspection.
      */
     @Override
-    public AccessTokenInfo getTokenMetaData(String s) throws APIManagementException {
-        return null;
+    public AccessTokenInfo getTokenMetaData(String accessToken) throws APIManagementException {
+        String tokenHash = getTokenHash(accessToken);
+        Auth0TokenValidator.ValidatedToken cachedToken = validatedTokenCache.get(tokenHash);
+        if (cachedToken != null) {
+            return cachedToken.toAccessTokenInfo(accessToken);
+        }
+        if (tokenValidator == null) {
+            log.warn("Cannot validate the token since the issuer or the audiences of the tokens are not configured");
+            return null;
+        }
+        Auth0TokenValidator.ValidatedToken validatedToken = tokenValidator.validate(accessToken);
+        if (validatedToken.isValid()) {
+            // Evicted when the token expires, so a cached result is never served for an expired token.
+            validatedTokenCache.put(tokenHash, validatedToken, validatedToken.getExpiryTime());
+        }
+        return validatedToken.toAccessTokenInfo(accessToken);
+    }
+
+    /**
+     * Drops the cached validation result of a token, so that a revoked token is not accepted from the cache, and
+     * removes it from the issued token index.
+     *
+     * @param accessToken access token that was revoked.
+     */
+    public void invalidateToken(String accessToken) throws APIManagementException {
+        String tokenHash = getHashedValue(accessToken);
+        validatedTokenCache.remove(tokenHash);
+        issuedTokenIndex.removeToken(tokenHash);
+    }
+
+    /**
+     * Drops the cached validation results of all the tokens issued to a client, and removes them from the issued
+     * token index.
+     *
+     * @param consumerKey client ID whose tokens were revoked.
+     */
+    public void invalidateTokensOfConsumerKey(String consumerKey) {
+        validatedTokenCache.removeIf(validatedToken -> consumerKey.equals(validatedToken.getConsumerKey()));
+        issuedTokenIndex.removeConsumerKey(consumerKey);
     }
 
     @Override
@@ -321,82 +883,798 @@ public class Auth0OAuthClient extends AbstractKeyManager {
         return oAuthAppRequest.getOAuthApplicationInfo();
     }
 
+    /**
+     * Applies the configuration of the key manager. When the key manager was loaded before, by this instance or by
+     * the instance it replaces, only the parts whose parameters changed are rebuilt. The clients, and with them the
+     * connections, the async workers and the management API token, are kept unless a parameter they depend on
+     * changed. After the client secret is rotated, the new token interceptor keeps using the current token until
+     * one is fetched with the new secret, so that rotating the secret does not hold up requests.
+     */
     @Override
     public void loadConfiguration(KeyManagerConfiguration keyManagerConfiguration) throws APIManagementException {
+        String newKeyManagerMarker = keyManagerConfiguration.getTenantDomain() + "/"
+                + keyManagerConfiguration.getName();
+        Map<String, String> parameters = getParameterValues(keyManagerConfiguration);
+        Auth0OAuthClient previous = loadedParameters != null ? this : getLoadedKeyManager(newKeyManagerMarker);
+        Set<String> changedParameters = previous != null ?
+                getChangedParameters(previous.loadedParameters, parameters) : parameters.keySet();
+        if (previous != null && log.isDebugEnabled()) {
+            log.debug("Reloading the configuration of the key manager " + newKeyManagerMarker
+                    + " with the changed parameters " + changedParameters);
+        }
         configuration = keyManagerConfiguration;
-        auth0TokenClient = Feign.builder().client(new OkHttpClient()).encoder(new FormEncoder())
-                .decoder(new GsonDecoder()).errorDecoder(new ErrorDecoder.Default())
-                .logger(new Slf4jLogger()).target(Auth0TokenClient.class,
+        if (previous != null && previous != this) {
+            // The clients record their calls in the metrics, which must stay with them.
+            metrics = previous.metrics;
+        }
+        // The metrics stay registered over JMX while a configuration of the key manager is in use, and are
+        // unregistered along with the other shared resources once every configuration holding them is discarded.
+        Auth0Metrics loadedMetrics = metrics;
+        metrics = Auth0SharedResources.acquire(this, "metrics|" + newKeyManagerMarker, () -> {
+            loadedMetrics.register(keyManagerConfiguration.getTenantDomain(), keyManagerConfiguration.getName());
+            return loadedMetrics;
+        }, Auth0Metrics::unregister);
+        boolean clientsRebuilt = previous == null || isChanged(changedParameters, CLIENT_PARAMETERS)
+                || !reuseClients(previous);
+        if (clientsRebuilt) {
+            buildClients(keyManagerConfiguration, previous);
+        }
+        if (clientsRebuilt || isChanged(changedParameters, Auth0Constants.MANAGEMENT_TOKEN_STORE,
+                Auth0Constants.MANAGEMENT_TOKEN_STORE_PATH)) {
+            managementTokenStore = createTokenStore(keyManagerConfiguration);
+            auth0APIKeyInterceptor.setTokenStore(managementTokenStore, apiKeyInterceptorKey);
+        } else {
+            managementTokenStore = previous.managementTokenStore;
+        }
+        if (Auth0Constants.MANAGEMENT_TOKEN_FETCH_BACKGROUND.equals(getStringParameter(keyManagerConfiguration,
+                Auth0Constants.MANAGEMENT_TOKEN_FETCH, Auth0Constants.MANAGEMENT_TOKEN_FETCH_LAZY))) {
+            auth0APIKeyInterceptor.start();
+        }
+        metrics.setManagementTokenInterceptor(auth0APIKeyInterceptor);
+        if (clientsRebuilt || isChanged(changedParameters, Auth0Constants.CLIENT_GRANT_CACHE_EXPIRY)) {
+            clientGrantCache = new Auth0Cache<>(Auth0Constants.CLIENT_GRANT_CACHE_MAX_SIZE,
+                    TimeUnit.SECONDS.toMillis(getLongParameter(keyManagerConfiguration,
+                            Auth0Constants.CLIENT_GRANT_CACHE_EXPIRY,
+                            Auth0Constants.DEFAULT_CLIENT_GRANT_CACHE_EXPIRY_SECONDS)));
+        } else {
+            clientGrantCache = previous.clientGrantCache;
+        }
+        if (clientsRebuilt || isChanged(changedParameters, Auth0Constants.SCOPE_RESOURCE_SERVER,
+                Auth0Constants.SCOPE_REFRESH_INTERVAL)) {
+            buildScopeRegistry(keyManagerConfiguration);
+        } else {
+            scopeRegistry = previous.scopeRegistry;
+        }
+        if (clientsRebuilt || isChanged(changedParameters, Auth0Constants.RESOURCE_SERVER_IDENTIFIER_PREFIX)) {
+            buildResourceServerSynchronizer(keyManagerConfiguration);
+        } else {
+            resourceServerSynchronizer = previous.resourceServerSynchronizer;
+        }
+        keyManagerMarker = newKeyManagerMarker + "/" + getDeploymentId(keyManagerConfiguration, newKeyManagerMarker);
+        // The reconciler reads the clients through the key manager that created it, so a new instance needs its own.
+        if (clientsRebuilt || previous != this || isChanged(changedParameters, Auth0Constants.RECONCILIATION_INTERVAL,
+                Auth0Constants.RECONCILIATION_DELETE_ORPHANS, Auth0Constants.RECONCILIATION_ORPHAN_GRACE_PERIOD,
+                Auth0Constants.RECONCILIATION_PARALLELISM, Auth0Constants.DEPLOYMENT_ID,
+                Auth0Constants.MANAGEMENT_TOKEN_STORE, Auth0Constants.MANAGEMENT_TOKEN_STORE_PATH)) {
+            if (previous != null && previous.applicationReconciler != null) {
+                previous.applicationReconciler.shutdown();
+            }
+            buildApplicationReconciler(keyManagerConfiguration);
+        }
+        if (previous == null || isChanged(changedParameters, Auth0Constants.ENABLE_TOKEN_CACHE,
+                Auth0Constants.TOKEN_CACHE_SAFETY_MARGIN, APIConstants.KeyManager.TOKEN_ENDPOINT)) {
+            tokenResponseCache = null;
+            if (Boolean.parseBoolean(getStringParameter(keyManagerConfiguration, Auth0Constants.ENABLE_TOKEN_CACHE,
+                    "false"))) {
+                tokenCacheSafetyMargin = getLongParameter(keyManagerConfiguration,
+                        Auth0Constants.TOKEN_CACHE_SAFETY_MARGIN,
+                        Auth0Constants.DEFAULT_TOKEN_CACHE_SAFETY_MARGIN_SECONDS);
+                tokenResponseCache = new Auth0Cache<>(Auth0Constants.TOKEN_CACHE_MAX_SIZE);
+            }
+        } else {
+            tokenResponseCache = previous.tokenResponseCache;
+            tokenCacheSafetyMargin = previous.tokenCacheSafetyMargin;
+        }
+        if (clientsRebuilt || isChanged(changedParameters, APIConstants.KeyManager.ISSUER,
+                APIConstants.KeyManager.JWKS_ENDPOINT, Auth0Constants.TOKEN_AUDIENCES,
+                Auth0Constants.RESOURCE_SERVER_IDENTIFIER_PREFIX)) {
+            if (previous != null && previous.tokenValidator != null) {
+                previous.tokenValidator.shutdown();
+            }
+            buildTokenValidator(keyManagerConfiguration);
+        } else {
+            tokenValidator = previous.tokenValidator;
+        }
+        loadedParameters = parameters;
+        loadedKeyManagers.put(newKeyManagerMarker, new WeakReference<>(this));
+    }
+
+    /**
+     * Builds the feign clients, along with the management API token interceptor and the async workers, and releases
+     * the shared resources of the earlier configuration that are no longer used.
+     *
+     * @param keyManagerConfiguration key manager configuration.
+     * @param previous                key manager loaded with the earlier configuration, or null.
+     * @throws APIManagementException if the client secret cannot be hashed.
+     */
+    private void buildClients(KeyManagerConfiguration keyManagerConfiguration, Auth0OAuthClient previous)
+            throws APIManagementException {
+        long connectTimeout = getLongParameter(keyManagerConfiguration, Auth0Constants.CONNECT_TIMEOUT,
+                Auth0Constants.DEFAULT_CONNECT_TIMEOUT_MILLIS);
+        long readTimeout = getLongParameter(keyManagerConfiguration, Auth0Constants.READ_TIMEOUT,
+                Auth0Constants.DEFAULT_READ_TIMEOUT_MILLIS);
+        // The options must match the timeouts of the shared client, otherwise feign derives a new client per call.
+        Request.Options options = new Request.Options(connectTimeout, TimeUnit.MILLISECONDS, readTimeout,
+                TimeUnit.MILLISECONDS, true);
+        // Key managers of the same Auth0 domain with the same connection settings share the connection pool.
+        String newHttpClientKey = getHttpClientKey(keyManagerConfiguration, connectTimeout, readTimeout);
+        OkHttpClient httpClient = new OkHttpClient(Auth0SharedResources.acquire(this, newHttpClientKey,
+                () -> createHttpClient(keyManagerConfiguration, connectTimeout, readTimeout),
+                Auth0OAuthClient::closeHttpClient));
+        GsonEncoder gsonEncoder = new GsonEncoder(Auth0Gson.getGson());
+        GsonDecoder gsonDecoder = new GsonDecoder(Auth0Gson.getGson());
+        Auth0MetricsCapability metricsCapability = new Auth0MetricsCapability(metrics);
+        Client auth0Client = createCircuitBreakerClient(keyManagerConfiguration, httpClient);
+        auth0TokenClient = Feign.builder().client(auth0Client).options(options).encoder(new FormEncoder())
+                .decoder(gsonDecoder).errorDecoder(new ErrorDecoder.Default())
+                .addCapability(metricsCapability).logger(new Slf4jLogger()).target(Auth0TokenClient.class,
                         (String) keyManagerConfiguration.getParameter(APIConstants.KeyManager.TOKEN_ENDPOINT));
-        Auth0APIKeyInterceptor auth0APIKeyInterceptor = new Auth0APIKeyInterceptor(auth0TokenClient,
-                (String) keyManagerConfiguration.getParameter(Auth0Constants.CLIENT_ID),
-                (String) keyManagerConfiguration.getParameter(Auth0Constants.CLIENT_SECRET),
-                (String) keyManagerConfiguration.getParameter(Auth0Constants.AUDIENCE));
+        // Key managers using the same management API client with the same secret share the token.
+        Auth0TokenClient tokenClient = auth0TokenClient;
+        String clientId = (String) keyManagerConfiguration.getParameter(Auth0Constants.CLIENT_ID);
+        String clientSecret = (String) keyManagerConfiguration.getParameter(Auth0Constants.CLIENT_SECRET);
+        String managementApiAudience = (String) keyManagerConfiguration.getParameter(Auth0Constants.AUDIENCE);
+        double tokenRefreshRatio = getDoubleParameter(keyManagerConfiguration, Auth0Constants.TOKEN_REFRESH_RATIO,
+                Auth0Constants.DEFAULT_TOKEN_REFRESH_RATIO);
+        String clientKey = "token|" + keyManagerConfiguration.getParameter(APIConstants.KeyManager.TOKEN_ENDPOINT)
+                + "|" + clientId + "|" + managementApiAudience + "|" + tokenRefreshRatio + "|";
+        String newApiKeyInterceptorKey = clientKey + (clientSecret != null ? getHashedValue(clientSecret) : "");
+        // After the secret of the client is rotated, the token fetched with the earlier secret stays in use until
+        // one is fetched with the new secret.
+        Auth0APIKeyInterceptor previousInterceptor = previous != null && previous.apiKeyInterceptorKey != null
+                && previous.apiKeyInterceptorKey.startsWith(clientKey) ? previous.auth0APIKeyInterceptor : null;
+        auth0APIKeyInterceptor = Auth0SharedResources.acquire(this, newApiKeyInterceptorKey, () -> {
+            Auth0APIKeyInterceptor apiKeyInterceptor = new Auth0APIKeyInterceptor(tokenClient, clientId,
+                    clientSecret, managementApiAudience, tokenRefreshRatio);
+            if (previousInterceptor != null) {
+                apiKeyInterceptor.takeOverToken(previousInterceptor);
+            }
+            return apiKeyInterceptor;
+        }, Auth0APIKeyInterceptor::shutdown);
+        releaseSharedResource(httpClientKey, newHttpClientKey);
+        releaseSharedResource(apiKeyInterceptorKey, newApiKeyInterceptorKey);
+        httpClientKey = newHttpClientKey;
+        apiKeyInterceptorKey = newApiKeyInterceptorKey;
         String clientRegistrationEndpoint = ((String) keyManagerConfiguration.getParameter(Auth0Constants.AUDIENCE))
                 .concat("clients");
         String clientGrantEndpoint = ((String) keyManagerConfiguration.getParameter(Auth0Constants.AUDIENCE))
                 .concat("client-grants");
-        auth0DCRClient = Feign.builder().client(new OkHttpClient()).encoder(new GsonEncoder())
-                .decoder(new GsonDecoder()).errorDecoder(new ErrorDecoder.Default())
-                .logger(new Slf4jLogger()).requestInterceptor(auth0APIKeyInterceptor)
+        String resourceServerEndpoint = ((String) keyManagerConfiguration.getParameter(Auth0Constants.AUDIENCE))
+                .concat("resource-servers");
+        // The client and client grant endpoints of all the key managers of the domain share the Management API quota
+        // of the tenant, so key managers of the same domain with the same rate limit share the limiter.
+        double rateLimit = getDoubleParameter(keyManagerConfiguration, Auth0Constants.MANAGEMENT_API_RATE_LIMIT,
+                Auth0Constants.DEFAULT_MANAGEMENT_API_RATE_LIMIT);
+        String newRateLimiterKey = null;
+        Client managementApiClient = auth0Client;
+        if (rateLimit > 0) {
+            newRateLimiterKey = "rate|" + getDomain(keyManagerConfiguration) + "|" + rateLimit;
+            managementApiClient = new Auth0RateLimitedClient(auth0Client, Auth0SharedResources.acquire(this,
+                    newRateLimiterKey, () -> new Auth0RateLimiter(rateLimit, (int) Math.ceil(rateLimit)),
+                    rateLimiter -> {
+                        // The limiter holds no connections or threads.
+                    }));
+        }
+        releaseSharedResource(rateLimiterKey, newRateLimiterKey);
+        rateLimiterKey = newRateLimiterKey;
+        int maxAttempts = (int) getLongParameter(keyManagerConfiguration, Auth0Constants.MANAGEMENT_API_MAX_ATTEMPTS,
+                Auth0Constants.DEFAULT_MANAGEMENT_API_MAX_ATTEMPTS);
+        auth0DCRClient = Feign.builder().client(managementApiClient).options(options).encoder(gsonEncoder)
+                .decoder(gsonDecoder).errorDecoder(new Auth0RateLimitErrorDecoder())
+                .retryer(new Auth0Retryer(maxAttempts, Auth0Constants.RETRY_BACKOFF_PERIOD_MILLIS,
+                        Auth0Constants.RETRY_MAX_BACKOFF_PERIOD_MILLIS))
+                .addCapability(metricsCapability).logger(new Slf4jLogger()).requestInterceptor(auth0APIKeyInterceptor)
                 .target(Auth0DCRClient.class, clientRegistrationEndpoint);
-        auth0ClientGrant = Feign.builder().client(new OkHttpClient()).encoder(new GsonEncoder())
-                .decoder(new GsonDecoder()).errorDecoder(new ErrorDecoder.Default())
-                .logger(new Slf4jLogger()).requestInterceptor(auth0APIKeyInterceptor)
+        auth0ClientGrant = Feign.builder().client(managementApiClient).options(options).encoder(gsonEncoder)
+                .decoder(gsonDecoder).errorDecoder(new Auth0RateLimitErrorDecoder())
+                .retryer(new Auth0Retryer(maxAttempts, Auth0Constants.RETRY_BACKOFF_PERIOD_MILLIS,
+                        Auth0Constants.RETRY_MAX_BACKOFF_PERIOD_MILLIS))
+                .addCapability(metricsCapability).logger(new Slf4jLogger()).requestInterceptor(auth0APIKeyInterceptor)
                 .target(Auth0ClientGrant.class, clientGrantEndpoint);
+        auth0ResourceServerClient = Feign.builder().client(managementApiClient).options(options).encoder(gsonEncoder)
+                .decoder(gsonDecoder).errorDecoder(new Auth0RateLimitErrorDecoder())
+                .retryer(new Auth0Retryer(maxAttempts, Auth0Constants.RETRY_BACKOFF_PERIOD_MILLIS,
+                        Auth0Constants.RETRY_MAX_BACKOFF_PERIOD_MILLIS))
+                .addCapability(metricsCapability).logger(new Slf4jLogger()).requestInterceptor(auth0APIKeyInterceptor)
+                .target(Auth0ResourceServerClient.class, resourceServerEndpoint);
+        // Calls already submitted to the workers of the earlier configuration complete on them. The workers run the
+        // asynchronous and bulk calls and the background work only. The synchronous calls run on the calling thread.
+        if (backgroundExecutor != null) {
+            backgroundExecutor.shutdown();
+        }
+        backgroundExecutor = Auth0Scheduler.newWorkerPool("auth0-km-background", (int) getLongParameter(
+                keyManagerConfiguration, Auth0Constants.MAX_REQUESTS_PER_HOST,
+                Auth0Constants.DEFAULT_MAX_REQUESTS_PER_HOST));
+        auth0DCRAsyncClient = Auth0DCRAsyncClient.create(auth0DCRClient, backgroundExecutor);
+        auth0ClientGrantAsyncClient = Auth0ClientGrantAsyncClient.create(auth0ClientGrant, backgroundExecutor);
+        // Concurrent reads of the same client, such as portal traffic spikes, share one call.
+        applicationReads = new Auth0SingleFlight<>("Auth0DCRClient.getApplication", metrics);
+        clientGrantReads = new Auth0SingleFlight<>("Auth0ClientGrant.getClientGrant", metrics);
+        jwksHttpClient = auth0Client;
+        jwksRequestOptions = options;
+    }
+
+    /**
+     * Creates the store through which the nodes of the cluster share the management API token.
+     *
+     * @param keyManagerConfiguration key manager configuration.
+     * @return token store, or null if every node fetches its own token.
+     * @throws APIManagementException if the configured store cannot be created.
+     */
+    private static Auth0ManagementTokenStore createTokenStore(KeyManagerConfiguration keyManagerConfiguration)
+            throws APIManagementException {
+        String tokenStore = getStringParameter(keyManagerConfiguration, Auth0Constants.MANAGEMENT_TOKEN_STORE,
+                Auth0Constants.MANAGEMENT_TOKEN_STORE_LOCAL);
+        if (Auth0Constants.MANAGEMENT_TOKEN_STORE_LOCAL.equals(tokenStore)) {
+            return null;
+        }
+        if (Auth0Constants.MANAGEMENT_TOKEN_STORE_FILE.equals(tokenStore)) {
+            String tokenStorePath = getStringParameter(keyManagerConfiguration,
+                    Auth0Constants.MANAGEMENT_TOKEN_STORE_PATH, null);
+            if (tokenStorePath == null) {
+                throw new APIManagementException("Directory of the management token store is not configured");
+            }
+            return new Auth0FileTokenStore(Paths.get(tokenStorePath));
+        }
+        try {
+            return Class.forName(tokenStore).asSubclass(Auth0ManagementTokenStore.class).getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new APIManagementException("Error while creating the management token store " + tokenStore, e);
+        }
+    }
+
+    /**
+     * Returns the ID of the API Manager deployment, which is added to the marker of the clients created by the key
+     * manager so that deployments sharing an Auth0 tenant tell their clients apart. When no ID is configured, one is
+     * generated and kept in a file. The file is kept in the directory of the file token store when it is used, so that
+     * the nodes sharing it use the same ID, or in the data directory of the server otherwise.
+     *
+     * @param keyManagerConfiguration key manager configuration.
+     * @param keyManagerName          tenant domain and name of the key manager.
+     * @return deployment ID.
+     * @throws APIManagementException if the generated ID cannot be read or kept.
+     */
+    private static String getDeploymentId(KeyManagerConfiguration keyManagerConfiguration, String keyManagerName)
+            throws APIManagementException {
+        String deploymentId = getStringParameter(keyManagerConfiguration, Auth0Constants.DEPLOYMENT_ID, null);
+        if (StringUtils.isNotEmpty(deploymentId)) {
+            return deploymentId;
+        }
+        String tokenStorePath = getStringParameter(keyManagerConfiguration,
+                Auth0Constants.MANAGEMENT_TOKEN_STORE_PATH, null);
+        Path directory = Auth0Constants.MANAGEMENT_TOKEN_STORE_FILE.equals(getStringParameter(keyManagerConfiguration,
+                Auth0Constants.MANAGEMENT_TOKEN_STORE, Auth0Constants.MANAGEMENT_TOKEN_STORE_LOCAL))
+                && tokenStorePath != null ? Paths.get(tokenStorePath) : Paths.get(System.getProperty(
+                Auth0Constants.CARBON_HOME, System.getProperty("java.io.tmpdir")), "repository", "data", "auth0");
+        Path deploymentIdPath = directory.resolve(getHashedValue(keyManagerName)
+                + Auth0Constants.DEPLOYMENT_ID_FILE_EXTENSION);
+        try {
+            if (!Files.exists(deploymentIdPath)) {
+                Files.createDirectories(directory);
+                Path temporaryPath = Files.createTempFile(directory, null, null);
+                try {
+                    Files.write(temporaryPath, UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+                    // Fails if another node generated the ID meanwhile, whose ID is then used.
+                    Files.move(temporaryPath, deploymentIdPath);
+                    log.info("Generated the deployment ID of the key manager " + keyManagerName + " in "
+                            + deploymentIdPath);
+                } catch (FileAlreadyExistsException e) {
+                    Files.deleteIfExists(temporaryPath);
+                }
+            }
+            return new String(Files.readAllBytes(deploymentIdPath), StandardCharsets.UTF_8).trim();
+        } catch (IOException e) {
+            throw new APIManagementException("Error while reading the deployment ID of the key manager "
+                    + keyManagerName + " from " + deploymentIdPath, e);
+        }
+    }
+
+    /**
+     * Takes over the clients of the earlier configuration of the key manager, along with the shared resources they
+     * use. Each field is replaced by a single write, so a request that already read a client completes with it.
+     *
+     * @param previous key manager holding the clients.
+     * @return false if the shared resources of the clients were already released, in which case the clients must be
+     * built again.
+     */
+    private boolean reuseClients(Auth0OAuthClient previous) {
+        if (previous == this) {
+            return true;
+        }
+        if (!Auth0SharedResources.hold(this, previous.httpClientKey)
+                || !Auth0SharedResources.hold(this, previous.apiKeyInterceptorKey)
+                || (previous.rateLimiterKey != null && !Auth0SharedResources.hold(this, previous.rateLimiterKey))) {
+            return false;
+        }
+        httpClientKey = previous.httpClientKey;
+        apiKeyInterceptorKey = previous.apiKeyInterceptorKey;
+        rateLimiterKey = previous.rateLimiterKey;
+        auth0TokenClient = previous.auth0TokenClient;
+        auth0APIKeyInterceptor = previous.auth0APIKeyInterceptor;
+        auth0DCRClient = previous.auth0DCRClient;
+        auth0ClientGrant = previous.auth0ClientGrant;
+        auth0ResourceServerClient = previous.auth0ResourceServerClient;
+        backgroundExecutor = previous.backgroundExecutor;
+        auth0DCRAsyncClient = previous.auth0DCRAsyncClient;
+        auth0ClientGrantAsyncClient = previous.auth0ClientGrantAsyncClient;
+        applicationReads = previous.applicationReads;
+        clientGrantReads = previous.clientGrantReads;
+        jwksHttpClient = previous.jwksHttpClient;
+        jwksRequestOptions = previous.jwksRequestOptions;
+        return true;
+    }
+
+    private void buildScopeRegistry(KeyManagerConfiguration keyManagerConfiguration) {
+        String scopeResourceServer = getStringParameter(keyManagerConfiguration, Auth0Constants.SCOPE_RESOURCE_SERVER,
+                null);
+        scopeRegistry = null;
+        if (StringUtils.isNotEmpty(scopeResourceServer)) {
+            long scopeRefreshInterval = TimeUnit.SECONDS.toMillis(getLongParameter(keyManagerConfiguration,
+                    Auth0Constants.SCOPE_REFRESH_INTERVAL, Auth0Constants.DEFAULT_SCOPE_REFRESH_INTERVAL_SECONDS));
+            scopeRegistry = new Auth0ScopeRegistry(auth0ResourceServerClient, scopeResourceServer,
+                    scopeRefreshInterval, backgroundExecutor);
+        }
+    }
+
+    private void buildResourceServerSynchronizer(KeyManagerConfiguration keyManagerConfiguration) {
+        String resourceServerIdentifierPrefix = getStringParameter(keyManagerConfiguration,
+                Auth0Constants.RESOURCE_SERVER_IDENTIFIER_PREFIX, null);
+        resourceServerSynchronizer = StringUtils.isNotEmpty(resourceServerIdentifierPrefix) ?
+                new Auth0ResourceServerSynchronizer(auth0ResourceServerClient, resourceServerIdentifierPrefix,
+                        backgroundExecutor) : null;
+    }
+
+    private void buildApplicationReconciler(KeyManagerConfiguration keyManagerConfiguration) {
+        applicationReconciler = new Auth0ApplicationReconciler(this::iterateApplications, this::iterateClientGrants,
+                auth0DCRClient, auth0ClientGrant, keyManagerMarker, Boolean.parseBoolean(getStringParameter(
+                keyManagerConfiguration, Auth0Constants.RECONCILIATION_DELETE_ORPHANS, "false")),
+                TimeUnit.SECONDS.toMillis(getLongParameter(keyManagerConfiguration,
+                        Auth0Constants.RECONCILIATION_ORPHAN_GRACE_PERIOD,
+                        Auth0Constants.DEFAULT_RECONCILIATION_ORPHAN_GRACE_PERIOD_SECONDS)),
+                (int) getLongParameter(keyManagerConfiguration, Auth0Constants.RECONCILIATION_PARALLELISM,
+                        Auth0Constants.DEFAULT_RECONCILIATION_PARALLELISM), backgroundExecutor,
+                managementTokenStore);
+        long reconciliationInterval = getLongParameter(keyManagerConfiguration,
+                Auth0Constants.RECONCILIATION_INTERVAL, Auth0Constants.DEFAULT_RECONCILIATION_INTERVAL_SECONDS);
+        if (reconciliationInterval > 0) {
+            applicationReconciler.schedule(TimeUnit.SECONDS.toMillis(reconciliationInterval));
+        }
     }
 
+    private void buildTokenValidator(KeyManagerConfiguration keyManagerConfiguration) {
+        tokenValidator = null;
+        validatedTokenCache.clear();
+        String issuer = getStringParameter(keyManagerConfiguration, APIConstants.KeyManager.ISSUER,
+                getDefaultIssuer(keyManagerConfiguration));
+        if (issuer == null) {
+            log.warn("Tokens cannot be validated since the issuer is neither configured nor derivable from the "
+                    + "token endpoint");
+            return;
+        }
+        List<String> audiences = new ArrayList<>();
+        for (String audience : getStringParameter(keyManagerConfiguration, Auth0Constants.TOKEN_AUDIENCES, "")
+                .split(",")) {
+            if (StringUtils.isNotBlank(audience)) {
+                audiences.add(audience.trim());
+            }
+        }
+        String audiencePrefix = getStringParameter(keyManagerConfiguration,
+                Auth0Constants.RESOURCE_SERVER_IDENTIFIER_PREFIX, null);
+        if (audiences.isEmpty() && audiencePrefix == null) {
+            log.warn("Tokens cannot be validated since neither the token audiences nor the API resource server "
+                    + "identifier prefix is configured");
+            return;
+        }
+        String jwksEndpoint = getStringParameter(keyManagerConfiguration, APIConstants.KeyManager.JWKS_ENDPOINT,
+                issuer.endsWith("/") ? issuer.concat(Auth0Constants.JWKS_PATH) :
+                        issuer + "/" + Auth0Constants.JWKS_PATH);
+        Auth0JWKSClient jwksClient = Feign.builder().client(jwksHttpClient).options(jwksRequestOptions)
+                .errorDecoder(new ErrorDecoder.Default()).addCapability(new Auth0MetricsCapability(metrics))
+                .logger(new Slf4jLogger()).target(Auth0JWKSClient.class, jwksEndpoint);
+        tokenValidator = new Auth0TokenValidator(jwksClient, issuer, audiences, audiencePrefix,
+                TimeUnit.SECONDS.toMillis(Auth0Constants.JWKS_REFRESH_INTERVAL_SECONDS));
+    }
+
+    /**
+     * Derives the issuer of the tokens from the token endpoint. Auth0 issues the tokens of a tenant with the base URL
+     * of its domain as the issuer.
+     *
+     * @param keyManagerConfiguration key manager configuration.
+     * @return issuer, or null if the token endpoint is not a valid URL.
+     */
+    private static String getDefaultIssuer(KeyManagerConfiguration keyManagerConfiguration) {
+        String tokenEndpoint = getStringParameter(keyManagerConfiguration, APIConstants.KeyManager.TOKEN_ENDPOINT,
+                null);
+        if (tokenEndpoint == null) {
+            return null;
+        }
+        try {
+            URI tokenEndpointUri = URI.create(tokenEndpoint);
+            if (tokenEndpointUri.getScheme() == null || tokenEndpointUri.getHost() == null) {
+                return null;
+            }
+            return tokenEndpointUri.getScheme() + "://" + tokenEndpointUri.getHost()
+                    + (tokenEndpointUri.getPort() != -1 ? ":" + tokenEndpointUri.getPort() : "") + "/";
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the key manager of the given tenant and name that was loaded last, if it is still in use.
+     *
+     * @param keyManagerMarker tenant domain and name of the key manager.
+     * @return key manager, or null if there is none.
+     */
+    private static Auth0OAuthClient getLoadedKeyManager(String keyManagerMarker) {
+        WeakReference<Auth0OAuthClient> keyManager = loadedKeyManagers.get(keyManagerMarker);
+        Auth0OAuthClient loadedKeyManager = keyManager != null ? keyManager.get() : null;
+        if (keyManager != null && loadedKeyManager == null) {
+            loadedKeyManagers.remove(keyManagerMarker, keyManager);
+        }
+        return loadedKeyManager != null && loadedKeyManager.loadedParameters != null ? loadedKeyManager : null;
+    }
+
+    private static Map<String, String> getParameterValues(KeyManagerConfiguration keyManagerConfiguration) {
+        Map<String, String> parameterValues = new HashMap<>();
+        for (Map.Entry<String, Object> parameter : keyManagerConfiguration.getParameters().entrySet()) {
+            if (parameter.getValue() != null) {
+                parameterValues.put(parameter.getKey(), parameter.getValue().toString());
+            }
+        }
+        return parameterValues;
+    }
+
+    private static Set<String> getChangedParameters(Map<String, String> oldParameters,
+                                                    Map<String, String> newParameters) {
+        Set<String> changedParameters = new HashSet<>();
+        for (Map.Entry<String, String> parameter : newParameters.entrySet()) {
+            if (!parameter.getValue().equals(oldParameters.get(parameter.getKey()))) {
+                changedParameters.add(parameter.getKey());
+            }
+        }
+        for (String name : oldParameters.keySet()) {
+            if (!newParameters.containsKey(name)) {
+                changedParameters.add(name);
+            }
+        }
+        return changedParameters;
+    }
+
+    private static boolean isChanged(Set<String> changedParameters, String... names) {
+        return isChanged(changedParameters, Arrays.asList(names));
+    }
+
+    private static boolean isChanged(Set<String> changedParameters, Collection<String> names) {
+        for (String name : names) {
+            if (changedParameters.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates the OkHttp client shared by all the feign clients of this key manager, so that the connection pool and
+     * the TLS sessions to the Auth0 tenant are reused across the token, client and client grant endpoints.
+     *
+     * @param keyManagerConfiguration key manager configuration.
+     * @param connectTimeout          connection timeout in milliseconds.
+     * @param readTimeout             read timeout in milliseconds.
+     * @return configured OkHttp client.
+     */
+    private static okhttp3.OkHttpClient createHttpClient(KeyManagerConfiguration keyManagerConfiguration,
+                                                         long connectTimeout, long readTimeout) {
+        int maxIdleConnections = (int) getLongParameter(keyManagerConfiguration,
+                Auth0Constants.CONNECTION_POOL_MAX_IDLE, Auth0Constants.DEFAULT_CONNECTION_POOL_MAX_IDLE);
+        long keepAlive = getLongParameter(keyManagerConfiguration, Auth0Constants.CONNECTION_KEEP_ALIVE,
+                Auth0Constants.DEFAULT_CONNECTION_KEEP_ALIVE_SECONDS);
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost((int) getLongParameter(keyManagerConfiguration,
+                Auth0Constants.MAX_REQUESTS_PER_HOST, Auth0Constants.DEFAULT_MAX_REQUESTS_PER_HOST));
+        List<Protocol> protocols = Boolean.parseBoolean(getStringParameter(keyManagerConfiguration,
+                Auth0Constants.ENABLE_HTTP2, "true")) ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1) :
+                Collections.singletonList(Protocol.HTTP_1_1);
+        return new okhttp3.OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive, TimeUnit.SECONDS))
+                .dispatcher(dispatcher)
+                .protocols(protocols)
+                .connectTimeout(connectTimeout, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeout, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Returns the key of the HTTP client of a configuration. Configurations of the same Auth0 domain with the same
+     * connection settings get the same key.
+     *
+     * @param keyManagerConfiguration key manager configuration.
+     * @param connectTimeout          connection timeout in milliseconds.
+     * @param readTimeout             read timeout in milliseconds.
+     * @return key of the HTTP client.
+     */
+    private static String getHttpClientKey(KeyManagerConfiguration keyManagerConfiguration, long connectTimeout,
+                                           long readTimeout) {
+        return "http|" + getDomain(keyManagerConfiguration) + "|" + connectTimeout + "|" + readTimeout + "|"
+                + getStringParameter(keyManagerConfiguration, Auth0Constants.CONNECTION_POOL_MAX_IDLE, "") + "|"
+                + getStringParameter(keyManagerConfiguration, Auth0Constants.CONNECTION_KEEP_ALIVE, "") + "|"
+                + getStringParameter(keyManagerConfiguration, Auth0Constants.MAX_REQUESTS_PER_HOST, "") + "|"
+                + getStringParameter(keyManagerConfiguration, Auth0Constants.ENABLE_HTTP2, "");
+    }
+
+    /**
+     * Returns the Auth0 domain of a configuration, which is the host of the token endpoint.
+     *
+     * @param keyManagerConfiguration key manager configuration.
+     * @return domain, or the whole token endpoint if it has no host.
+     */
+    private static String getDomain(KeyManagerConfiguration keyManagerConfiguration) {
+        String tokenEndpoint = (String) keyManagerConfiguration.getParameter(APIConstants.KeyManager.TOKEN_ENDPOINT);
+        String domain = tokenEndpoint;
+        if (tokenEndpoint != null) {
+            try {
+                String host = URI.create(tokenEndpoint).getHost();
+                domain = host != null ? host : tokenEndpoint;
+            } catch (IllegalArgumentException e) {
+                // Falls back to the whole endpoint as the domain.
+            }
+        }
+        return domain;
+    }
+
+    private static void closeHttpClient(okhttp3.OkHttpClient httpClient) {
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+
+    /**
+     * Releases a shared resource held by this key manager, unless the new configuration still uses it.
+     *
+     * @param key    key of the resource held so far, or null if there was none.
+     * @param newKey key of the resource used by the new configuration.
+     */
+    private void releaseSharedResource(String key, String newKey) {
+        if (key != null && !key.equals(newKey)) {
+            Auth0SharedResources.release(this, key);
+        }
+    }
+
+    /**
+     * Guards the calls of the client with a circuit breaker per endpoint, unless the circuit breaker is disabled. The
+     * rate limiter wraps the circuit breaker, so that the time spent waiting for the rate limit does not make calls
+     * look slow.
+     *
+     * @param keyManagerConfiguration key manager configuration.
+     * @param client                  client making the calls.
+     * @return guarded client.
+     */
+    private Client createCircuitBreakerClient(KeyManagerConfiguration keyManagerConfiguration, Client client) {
+        double failureRateThreshold = getDoubleParameter(keyManagerConfiguration,
+                Auth0Constants.CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD,
+                Auth0Constants.DEFAULT_CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD);
+        if (failureRateThreshold <= 0) {
+            return client;
+        }
+        return new Auth0CircuitBreakerClient(client, metrics, failureRateThreshold,
+                getDoubleParameter(keyManagerConfiguration, Auth0Constants.CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD,
+                        Auth0Constants.DEFAULT_CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD),
+                getLongParameter(keyManagerConfiguration, Auth0Constants.CIRCUIT_BREAKER_SLOW_CALL_DURATION,
+                        Auth0Constants.DEFAULT_CIRCUIT_BREAKER_SLOW_CALL_DURATION_MILLIS),
+                TimeUnit.SECONDS.toMillis(getLongParameter(keyManagerConfiguration,
+                        Auth0Constants.CIRCUIT_BREAKER_WAIT_DURATION,
+                        Auth0Constants.DEFAULT_CIRCUIT_BREAKER_WAIT_DURATION_SECONDS)),
+                (int) getLongParameter(keyManagerConfiguration, Auth0Constants.CIRCUIT_BREAKER_WINDOW_SIZE,
+                        Auth0Constants.DEFAULT_CIRCUIT_BREAKER_WINDOW_SIZE));
+    }
+
+    /**
+     * Reads a connector configuration as a string, falling back to the default when it is absent.
+     *
+     * @param keyManagerConfiguration key manager configuration.
+     * @param name                    name of the configuration.
+     * @param defaultValue            value to use when the configuration is not set.
+     * @return configured value or the default value.
+     */
+    private static String getStringParameter(KeyManagerConfiguration keyManagerConfiguration, String name,
+                                             String defaultValue) {
+        Object value = keyManagerConfiguration.getParameter(name);
+        if (value == null || StringUtils.isBlank(value.toString())) {
+            return defaultValue;
+        }
+        return value.toString().trim();
+    }
+
+    /**
+     * Reads a whole number connector configuration, falling back to the default when it is absent or malformed.
+     *
+     * @param keyManagerConfiguration key manager configuration.
+     * @param name                    name of the configuration.
+     * @param defaultValue            value to use when the configuration is not usable.
+     * @return configured value or the default value.
+     */
+    private static long getLongParameter(KeyManagerConfiguration keyManagerConfiguration, String name,
+                                         long defaultValue) {
+        String value = getStringParameter(keyManagerConfiguration, name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value " + value + " provided for " + name + ". Using the default value "
+                    + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Reads a numeric connector configuration, falling back to the default when it is absent or malformed.
+     *
+     * @param keyManagerConfiguration key manager configuration.
+     * @param name                    name of the configuration.
+     * @param defaultValue            value to use when the configuration is not usable.
+     * @return configured value or the default value.
+     */
+    private static double getDoubleParameter(KeyManagerConfiguration keyManagerConfiguration, String name,
+                                             double defaultValue) {
+        String value = getStringParameter(keyManagerConfiguration, name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value " + value + " provided for " + name + ". Using the default value "
+                    + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Creates the Auth0 resource server of the API, or updates it when it exists. Nothing is sent to Auth0 when the
+     * resource server already has the name and scopes of the API.
+     */
     @Override
     public boolean registerNewResource(API api, Map map) throws APIManagementException {
-        return false;
+        if (resourceServerSynchronizer == null) {
+            return false;
+        }
+        List<Auth0ResourceServerScope> scopes = new ArrayList<>();
+        if (api.getScopes() != null) {
+            for (Scope scope : api.getScopes()) {
+                String description = StringUtils.isNotEmpty(scope.getDescription()) ? scope.getDescription() :
+                        scope.getName();
+                scopes.add(new Auth0ResourceServerScope(scope.getKey(), description));
+            }
+        }
+        resourceServerSynchronizer.putResourceServer(api.getUuid(), api.getId().getApiName() + " "
+                + api.getId().getVersion(), scopes);
+        return true;
     }
 
     @Override
-    public Map getResourceByApiId(String s) throws APIManagementException {
-        return null;
+    public Map getResourceByApiId(String apiId) throws APIManagementException {
+        if (resourceServerSynchronizer == null) {
+            return null;
+        }
+        Auth0ResourceServerInfo resourceServer = resourceServerSynchronizer.getResourceServer(apiId);
+        if (resourceServer == null) {
+            return null;
+        }
+        List<String> scopes = new ArrayList<>();
+        if (resourceServer.getScopes() != null) {
+            for (Auth0ResourceServerScope scope : resourceServer.getScopes()) {
+                scopes.add(scope.getValue());
+            }
+        }
+        Map<String, Object> resource = new HashMap<>();
+        resource.put("id", resourceServer.getId());
+        resource.put("name", resourceServer.getName());
+        resource.put("identifier", resourceServer.getIdentifier());
+        resource.put("scopes", scopes);
+        return resource;
     }
 
     @Override
     public boolean updateRegisteredResource(API api, Map map) throws APIManagementException {
-        return false;
+        return registerNewResource(api, map);
     }
 
     @Override
-    public void deleteRegisteredResourceByAPIId(String s) throws APIManagementException {
-
+    public void deleteRegisteredResourceByAPIId(String apiId) throws APIManagementException {
+        if (resourceServerSynchronizer != null) {
+            resourceServerSynchronizer.deleteResourceServer(apiId);
+        }
     }
 
+    /**
+     * Drops what is known locally about the client of a mapped application. The client was created outside API
+     * Manager, so it is left in Auth0.
+     */
     @Override
-    public void deleteMappedApplication(String s) throws APIManagementException {
+    public void deleteMappedApplication(String consumerKey) throws APIManagementException {
+        clientGrantCache.remove(consumerKey);
+        invalidateTokensOfConsumerKey(consumerKey);
+        if (applicationReconciler != null) {
+            applicationReconciler.forget(consumerKey);
+        }
+    }
 
+    /**
+     * Reconciles the Auth0 clients created by this key manager with the applications of API Manager.
+     *
+     * @return outcome of the reconciliation.
+     */
+    public Auth0ReconciliationResult reconcileApplications() {
+        return applicationReconciler.reconcile();
     }
 
+    /**
+     * Returns the tokens issued to the consumer key through this key manager on this node that have not expired. Auth0
+     * cannot list the tokens of a client and the tokens themselves are never kept, so the result holds the SHA-256
+     * hashes of the tokens. Tokens issued by other nodes, or before this node started, are not included.
+     */
     @Override
-    public Set<String> getActiveTokensByConsumerKey(String s) throws APIManagementException {
-        return null;
+    public Set<String> getActiveTokensByConsumerKey(String consumerKey) throws APIManagementException {
+        return issuedTokenIndex.getActiveTokenHashes(consumerKey);
     }
 
+    /**
+     * Returns the token issued to the consumer key through this key manager on this node that expires last. The access
+     * token of the result is the SHA-256 hash of the token, and the validity period is the time left in seconds.
+     */
     @Override
-    public AccessTokenInfo getAccessTokenByConsumerKey(String s) throws APIManagementException {
-        return null;
+    public AccessTokenInfo getAccessTokenByConsumerKey(String consumerKey) throws APIManagementException {
+        Auth0IssuedTokenIndex.IssuedToken issuedToken = issuedTokenIndex.getLatestToken(consumerKey);
+        if (issuedToken == null) {
+            return null;
+        }
+        AccessTokenInfo accessTokenInfo = new AccessTokenInfo();
+        accessTokenInfo.setConsumerKey(consumerKey);
+        accessTokenInfo.setAccessToken(issuedToken.getTokenHash());
+        accessTokenInfo.setTokenValid(true);
+        accessTokenInfo.setIssuedTime(issuedToken.getIssuedTime());
+        accessTokenInfo.setValidityPeriod(Math.max(0, TimeUnit.MILLISECONDS.toSeconds(issuedToken.getExpiryTime()
+                - System.currentTimeMillis())));
+        return accessTokenInfo;
     }
 
     @Override
     public boolean canHandleToken(String accessToken) throws APIManagementException {
-        return false;
+        if (validatedTokenCache.get(getTokenHash(accessToken)) != null) {
+            return true;
+        }
+        return tokenValidator != null && tokenValidator.isIssuedByTenant(accessToken);
     }
 
+    /**
+     * Resolves the scopes of all the APIs from a single snapshot of the scope registry. Scopes that are not in Auth0
+     * are returned with their key only.
+     */
     @Override
     public Map<String, Set<Scope>> getScopesForAPIS(String apiIdsString) throws APIManagementException {
         Map<String, Set<Scope>> apiToScopeMapping = new HashMap<>();
         ApiMgtDAO apiMgtDAO = ApiMgtDAO.getInstance();
         Map<String, Set<String>> apiToScopeKeyMapping = apiMgtDAO.getScopesForAPIS(apiIdsString);
+        Map<String, Auth0ResourceServerScope> scopes = scopeRegistry != null ? scopeRegistry.getScopes() :
+                Collections.emptyMap();
         for (String apiId : apiToScopeKeyMapping.keySet()) {
             Set<Scope> apiScopes = new LinkedHashSet<>();
             Set<String> scopeKeys = apiToScopeKeyMapping.get(apiId);
             for (String scopeKey : scopeKeys) {
-                Scope scope = getScopeByName(scopeKey);
-                apiScopes.add(scope);
+                Auth0ResourceServerScope scope = scopes.get(scopeKey);
+                apiScopes.add(createScope(scopeKey, scope != null ? scope.getDescription() : null));
             }
             apiToScopeMapping.put(apiId, apiScopes);
         }
@@ -405,32 +1683,68 @@ public class Auth0OAuthClient extends AbstractKeyManager {
 
     @Override
     public void registerScope(Scope scope) throws APIManagementException {
-
+        if (scopeRegistry == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Scope resource server is not configured. Not registering the scope " + scope.getKey());
+            }
+            return;
+        }
+        String description = StringUtils.isNotEmpty(scope.getDescription()) ? scope.getDescription() :
+                scope.getName();
+        scopeRegistry.putScope(new Auth0ResourceServerScope(scope.getKey(), description));
     }
 
     @Override
-    public Scope getScopeByName(String s) throws APIManagementException {
-        return null;
+    public Scope getScopeByName(String name) throws APIManagementException {
+        if (scopeRegistry == null) {
+            return null;
+        }
+        Auth0ResourceServerScope scope = scopeRegistry.getScope(name);
+        return scope != null ? createScope(scope.getValue(), scope.getDescription()) : null;
     }
 
     @Override
     public Map<String, Scope> getAllScopes() throws APIManagementException {
-        return null;
+        Map<String, Scope> allScopes = new LinkedHashMap<>();
+        if (scopeRegistry != null) {
+            for (Auth0ResourceServerScope scope : scopeRegistry.getScopes().values()) {
+                allScopes.put(scope.getValue(), createScope(scope.getValue(), scope.getDescription()));
+            }
+        }
+        return allScopes;
     }
 
     @Override
-    public void deleteScope(String s) throws APIManagementException {
-
+    public void deleteScope(String name) throws APIManagementException {
+        if (scopeRegistry != null) {
+            scopeRegistry.deleteScope(name);
+        }
     }
 
     @Override
     public void updateScope(Scope scope) throws APIManagementException {
-
+        registerScope(scope);
     }
 
     @Override
-    public boolean isScopeExists(String s) throws APIManagementException {
-        return false;
+    public boolean isScopeExists(String name) throws APIManagementException {
+        return scopeRegistry != null && scopeRegistry.getScope(name) != null;
+    }
+
+    /**
+     * Creates an API Manager scope from an Auth0 scope. Auth0 scopes have no display name or roles, so the key is
+     * used as the name.
+     *
+     * @param key         value of the Auth0 scope.
+     * @param description description of the Auth0 scope.
+     * @return Scope object.
+     */
+    private static Scope createScope(String key, String description) {
+        Scope scope = new Scope();
+        scope.setKey(key);
+        scope.setName(key);
+        scope.setDescription(description);
+        return scope;
     }
 
     @Override
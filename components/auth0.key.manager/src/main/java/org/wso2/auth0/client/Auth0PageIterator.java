@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Iterates over the items of a paginated listing of the Management API. The next page is fetched in the background
+ * while the items of the current page are consumed, and no more than these two pages are held in memory. Since an
+ * iterator cannot throw checked exceptions, the errors of the calls are thrown as runtime exceptions by
+ * {@link #hasNext()}.
+ *
+ * @param <T> type of the items.
+ */
+public class Auth0PageIterator<T> implements Iterator<T> {
+    private final PageFetcher<T> pageFetcher;
+    private final Executor executor;
+    private Iterator<T> currentItems = Collections.emptyIterator();
+    private CompletableFuture<Page<T>> nextPage;
+
+    /**
+     * Creates the iterator and starts fetching the first page.
+     *
+     * @param pageFetcher fetches a page given the cursor returned with the previous page.
+     * @param executor    executor fetching the pages.
+     */
+    public Auth0PageIterator(PageFetcher<T> pageFetcher, Executor executor) {
+        this.pageFetcher = pageFetcher;
+        this.executor = executor;
+        this.nextPage = fetch(null);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentItems.hasNext()) {
+            if (nextPage == null) {
+                return false;
+            }
+            Page<T> page;
+            try {
+                page = nextPage.join();
+            } catch (CompletionException e) {
+                nextPage = null;
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+            nextPage = page.getNextCursor() != null ? fetch(page.getNextCursor()) : null;
+            currentItems = page.getItems().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentItems.next();
+    }
+
+    private CompletableFuture<Page<T>> fetch(String cursor) {
+        try {
+            return CompletableFuture.supplyAsync(() -> pageFetcher.fetch(cursor), executor);
+        } catch (RejectedExecutionException e) {
+            // The key manager was reconfigured while iterating. The remaining pages are fetched by the caller.
+            CompletableFuture<Page<T>> page = new CompletableFuture<>();
+            try {
+                page.complete(pageFetcher.fetch(cursor));
+            } catch (RuntimeException fetchError) {
+                page.completeExceptionally(fetchError);
+            }
+            return page;
+        }
+    }
+
+    /**
+     * Fetches one page of a listing.
+     *
+     * @param <T> type of the items.
+     */
+    public interface PageFetcher<T> {
+        /**
+         * @param cursor cursor returned with the previous page, or null for the first page.
+         * @return Page of items.
+         */
+        Page<T> fetch(String cursor);
+    }
+
+    /**
+     * One page of a listing, with the cursor of the page that follows it.
+     *
+     * @param <T> type of the items.
+     */
+    public static class Page<T> {
+        private final List<T> items;
+        private final String nextCursor;
+
+        /**
+         * @param items      items of the page.
+         * @param nextCursor cursor of the next page, or null if this is the last page.
+         */
+        public Page(List<T> items, String nextCursor) {
+            this.items = items != null ? items : Collections.emptyList();
+            this.nextCursor = nextCursor;
+        }
+
+        public List<T> getItems() {
+            return items;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+}
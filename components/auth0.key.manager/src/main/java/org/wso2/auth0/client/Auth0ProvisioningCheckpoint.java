@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import org.wso2.carbon.apimgt.api.model.OAuthApplicationInfo;
+
+/**
+ * Records the progress of a bulk application provisioning, so that an interrupted run can be resumed without
+ * creating the applications, or the Auth0 clients of the applications, that were already created.
+ */
+public interface Auth0ProvisioningCheckpoint {
+
+    /**
+     * @param key key of the application in the bulk request.
+     * @return true if the application was created by an earlier run.
+     */
+    boolean isCompleted(String key);
+
+    /**
+     * @param key key of the application in the bulk request.
+     * @return client ID of the Auth0 client created for the application by an earlier run that did not complete it,
+     * or null if there is none.
+     */
+    String getCreatedClientId(String key);
+
+    /**
+     * Called as soon as the Auth0 client of an application is created, before the audience is granted to it.
+     * Implementations are called concurrently.
+     *
+     * @param key      key of the application in the bulk request.
+     * @param clientId client ID of the created client.
+     */
+    void markClientCreated(String key, String clientId);
+
+    /**
+     * Called as soon as an application is created. Implementations are called concurrently.
+     *
+     * @param key                  key of the application in the bulk request.
+     * @param oAuthApplicationInfo created application.
+     */
+    void markCompleted(String key, OAuthApplicationInfo oAuthApplicationInfo);
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outcome of a reconciliation of the Auth0 clients created by the key manager with the applications of API Manager.
+ */
+public class Auth0ReconciliationResult {
+    private final AtomicInteger checkedCount = new AtomicInteger();
+    private final AtomicInteger unchangedCount = new AtomicInteger();
+    private final Set<String> orphanedClientIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> deletedClientIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> repairedGrantClientIds = ConcurrentHashMap.newKeySet();
+    private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+    void addCheckedClient() {
+        checkedCount.incrementAndGet();
+    }
+
+    void addUnchangedClient() {
+        unchangedCount.incrementAndGet();
+    }
+
+    void addOrphanedClient(String clientId) {
+        orphanedClientIds.add(clientId);
+    }
+
+    void addDeletedClient(String clientId) {
+        deletedClientIds.add(clientId);
+    }
+
+    void addRepairedGrant(String clientId) {
+        repairedGrantClientIds.add(clientId);
+    }
+
+    void addFailure(String clientId, Throwable failure) {
+        failures.put(clientId, failure);
+    }
+
+    /**
+     * @return number of clients compared with API Manager by this run.
+     */
+    public int getCheckedCount() {
+        return checkedCount.get();
+    }
+
+    /**
+     * @return number of clients skipped because they did not change since they were last found consistent.
+     */
+    public int getUnchangedCount() {
+        return unchangedCount.get();
+    }
+
+    /**
+     * @return clients that have no application in API Manager.
+     */
+    public Set<String> getOrphanedClientIds() {
+        return Collections.unmodifiableSet(orphanedClientIds);
+    }
+
+    /**
+     * @return orphaned clients deleted by this run.
+     */
+    public Set<String> getDeletedClientIds() {
+        return Collections.unmodifiableSet(deletedClientIds);
+    }
+
+    /**
+     * @return clients whose missing client grant was created again by this run.
+     */
+    public Set<String> getRepairedGrantClientIds() {
+        return Collections.unmodifiableSet(repairedGrantClientIds);
+    }
+
+    /**
+     * @return failure of each client that could not be reconciled.
+     */
+    public Map<String, Throwable> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    @Override
+    public String toString() {
+        return "checked=" + getCheckedCount() + ", unchanged=" + getUnchangedCount() + ", orphaned="
+                + orphanedClientIds.size() + ", deleted=" + deletedClientIds.size() + ", repairedGrants="
+                + repairedGrantClientIds.size() + ", failed=" + failures.size();
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import feign.FeignException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.auth0.client.model.Auth0ResourceServerClient;
+import org.wso2.auth0.client.model.Auth0ResourceServerInfo;
+import org.wso2.auth0.client.model.Auth0ResourceServerScope;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps one Auth0 resource server per API. The fingerprint of the name and scopes of every resource server is kept
+ * in memory, so that publishing an API that did not change is answered without calling Auth0. The fingerprints are
+ * loaded with a listing of the resource servers on first use. A change is sent to Auth0 right away by the thread
+ * making it, unless a change to the same API is being sent. Changes to the same API made while one is being sent are
+ * merged and sent once it completes, so that changes to the same API are sent one after the other, in the order they
+ * were made.
+ */
+public class Auth0ResourceServerSynchronizer {
+    private static final Log log = LogFactory.getLog(Auth0ResourceServerSynchronizer.class);
+
+    private final Auth0ResourceServerClient resourceServerClient;
+    private final String identifierPrefix;
+    private final Executor executor;
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+    private final Set<String> sending = new HashSet<>();
+    private final Object loadLock = new Object();
+    private final Object batchLock = new Object();
+    private volatile boolean loaded;
+    private final Map<String, PendingChange> pendingChanges = new HashMap<>();
+
+    /**
+     * @param resourceServerClient client of the resource servers endpoint of the Management API.
+     * @param identifierPrefix     prefix of the identifiers of the resource servers of the APIs.
+     * @param executor             executor fetching the pages of the listing of the resource servers.
+     */
+    public Auth0ResourceServerSynchronizer(Auth0ResourceServerClient resourceServerClient, String identifierPrefix,
+                                           Executor executor) {
+        this.resourceServerClient = resourceServerClient;
+        this.identifierPrefix = identifierPrefix;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the identifier of the resource server of an API. The identifier is the audience of the tokens issued
+     * for the API.
+     *
+     * @param apiId UUID of the API.
+     * @return identifier of the resource server.
+     */
+    public String getIdentifier(String apiId) {
+        return identifierPrefix + apiId;
+    }
+
+    /**
+     * Fetches the resource server of an API.
+     *
+     * @param apiId UUID of the API.
+     * @return resource server, or null if there is none.
+     */
+    public Auth0ResourceServerInfo getResourceServer(String apiId) throws APIManagementException {
+        String identifier = getIdentifier(apiId);
+        try {
+            Auth0ResourceServerInfo resourceServer = resourceServerClient.getResourceServer(identifier);
+            fingerprints.put(identifier, getFingerprint(resourceServer.getName(), resourceServer.getScopes()));
+            return resourceServer;
+        } catch (FeignException e) {
+            if (e.status() == 404) {
+                fingerprints.remove(identifier);
+                return null;
+            }
+            throw new APIManagementException("Error while retrieving the Auth0 resource server " + identifier, e);
+        } catch (RuntimeException e) {
+            throw new APIManagementException("Error while retrieving the Auth0 resource server " + identifier, e);
+        }
+    }
+
+    /**
+     * Creates or updates the resource server of an API, unless it already has the given name and scopes. Waits until
+     * the change is sent to Auth0.
+     *
+     * @param apiId  UUID of the API.
+     * @param name   name of the resource server.
+     * @param scopes scopes of the resource server.
+     */
+    public void putResourceServer(String apiId, String name, List<Auth0ResourceServerScope> scopes)
+            throws APIManagementException {
+        Auth0ResourceServerInfo resourceServer = new Auth0ResourceServerInfo();
+        resourceServer.setIdentifier(getIdentifier(apiId));
+        resourceServer.setName(name);
+        resourceServer.setScopes(scopes);
+        write(resourceServer.getIdentifier(), resourceServer, getFingerprint(name, scopes));
+    }
+
+    /**
+     * Deletes the resource server of an API. Waits until the change is sent to Auth0.
+     *
+     * @param apiId UUID of the API.
+     */
+    public void deleteResourceServer(String apiId) throws APIManagementException {
+        write(getIdentifier(apiId), null, null);
+    }
+
+    /**
+     * Queues the change, replacing the change to the same resource server that is still waiting to be sent, and waits
+     * until it is sent. When no change to the resource server is being sent, the calling thread sends it. Changes that
+     * leave the resource server as it is known to be are not queued.
+     *
+     * @param identifier     identifier of the resource server.
+     * @param resourceServer new state of the resource server, or null to delete it.
+     * @param fingerprint    fingerprint of the new state, or null to delete it.
+     */
+    private void write(String identifier, Auth0ResourceServerInfo resourceServer, String fingerprint)
+            throws APIManagementException {
+        loadFingerprints();
+        CompletableFuture<Void> result;
+        boolean sender;
+        synchronized (batchLock) {
+            PendingChange pendingChange = pendingChanges.get(identifier);
+            if (pendingChange == null) {
+                if (loaded && !sending.contains(identifier) && isUnchanged(identifier, fingerprint)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Auth0 resource server " + identifier + " is up to date");
+                    }
+                    return;
+                }
+                pendingChange = new PendingChange();
+                pendingChanges.put(identifier, pendingChange);
+            }
+            pendingChange.resourceServer = resourceServer;
+            pendingChange.fingerprint = fingerprint;
+            result = pendingChange.result;
+            sender = sending.add(identifier);
+        }
+        if (sender) {
+            sendPendingChanges(identifier);
+        }
+        try {
+            result.join();
+        } catch (CompletionException e) {
+            throw new APIManagementException("Error while synchronizing the Auth0 resource server " + identifier,
+                    e.getCause());
+        }
+    }
+
+    private boolean isUnchanged(String identifier, String fingerprint) {
+        return fingerprint != null ? fingerprint.equals(fingerprints.get(identifier))
+                : !fingerprints.containsKey(identifier);
+    }
+
+    /**
+     * Sends the changes to a resource server until none is left.
+     *
+     * @param identifier identifier of the resource server.
+     */
+    private void sendPendingChanges(String identifier) {
+        while (true) {
+            PendingChange change;
+            synchronized (batchLock) {
+                change = pendingChanges.remove(identifier);
+                if (change == null) {
+                    sending.remove(identifier);
+                    return;
+                }
+            }
+            apply(identifier, change);
+        }
+    }
+
+    private void apply(String identifier, PendingChange change) {
+        try {
+            if (loaded && isUnchanged(identifier, change.fingerprint)) {
+                // The changes collected for the resource server cancelled each other out.
+                change.result.complete(null);
+                return;
+            }
+            if (change.resourceServer == null) {
+                delete(identifier);
+            } else if (fingerprints.containsKey(identifier)) {
+                update(identifier, change.resourceServer);
+            } else {
+                create(identifier, change.resourceServer);
+            }
+            change.result.complete(null);
+        } catch (RuntimeException e) {
+            change.result.completeExceptionally(e);
+        }
+    }
+
+    private void create(String identifier, Auth0ResourceServerInfo resourceServer) {
+        try {
+            Auth0ResourceServerInfo createdResourceServer = resourceServerClient.createResourceServer(resourceServer);
+            fingerprints.put(identifier, getFingerprint(createdResourceServer.getName(),
+                    createdResourceServer.getScopes()));
+        } catch (FeignException e) {
+            if (e.status() != 409) {
+                throw e;
+            }
+            // The resource server was created by an earlier attempt or by another node.
+            update(identifier, resourceServer);
+        }
+    }
+
+    private void update(String identifier, Auth0ResourceServerInfo resourceServer) {
+        // The identifier of a resource server cannot be changed, and must not be sent with the update.
+        Auth0ResourceServerInfo update = new Auth0ResourceServerInfo();
+        update.setName(resourceServer.getName());
+        update.setScopes(resourceServer.getScopes());
+        Auth0ResourceServerInfo updatedResourceServer = resourceServerClient.updateResourceServer(identifier, update);
+        fingerprints.put(identifier, getFingerprint(updatedResourceServer.getName(),
+                updatedResourceServer.getScopes()));
+    }
+
+    private void delete(String identifier) {
+        try {
+            resourceServerClient.deleteResourceServer(identifier);
+        } catch (FeignException e) {
+            if (e.status() != 404) {
+                throw e;
+            }
+        }
+        fingerprints.remove(identifier);
+    }
+
+    /**
+     * Loads the fingerprints of the resource servers of the APIs, once. Until they are loaded every change is sent to
+     * Auth0.
+     */
+    private void loadFingerprints() {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            try {
+                Map<String, String> loadedFingerprints = new LinkedHashMap<>();
+                Iterator<Auth0ResourceServerInfo> resourceServers = new Auth0PageIterator<>(cursor -> {
+                    int page = cursor != null ? Integer.parseInt(cursor) : 0;
+                    List<Auth0ResourceServerInfo> items = Arrays.asList(resourceServerClient.getResourceServers(page,
+                            Auth0Constants.MANAGEMENT_API_PAGE_SIZE));
+                    return new Auth0PageIterator.Page<>(items, items.size() == Auth0Constants.MANAGEMENT_API_PAGE_SIZE
+                            ? String.valueOf(page + 1) : null);
+                }, executor);
+                while (resourceServers.hasNext()) {
+                    Auth0ResourceServerInfo resourceServer = resourceServers.next();
+                    if (resourceServer.getIdentifier() != null
+                            && resourceServer.getIdentifier().startsWith(identifierPrefix)) {
+                        loadedFingerprints.put(resourceServer.getIdentifier(),
+                                getFingerprint(resourceServer.getName(), resourceServer.getScopes()));
+                    }
+                }
+                fingerprints.putAll(loadedFingerprints);
+                loaded = true;
+            } catch (RuntimeException e) {
+                log.warn("Error while listing the Auth0 resource servers. Changes to APIs are sent to Auth0 without "
+                        + "checking whether the resource servers are up to date.", e);
+            }
+        }
+    }
+
+    /**
+     * Returns a hash of the name and scopes of a resource server. The order of the scopes is ignored.
+     */
+    private static String getFingerprint(String name, List<Auth0ResourceServerScope> scopes) {
+        Map<String, String> sortedScopes = new TreeMap<>();
+        if (scopes != null) {
+            for (Auth0ResourceServerScope scope : scopes) {
+                sortedScopes.put(scope.getValue(), scope.getDescription() != null ? scope.getDescription() : "");
+            }
+        }
+        StringBuilder state = new StringBuilder(name != null ? name : "");
+        for (Map.Entry<String, String> scope : sortedScopes.entrySet()) {
+            state.append('\n').append(scope.getKey()).append('\t').append(scope.getValue());
+        }
+        try {
+            return Auth0OAuthClient.getHashedValue(state.toString());
+        } catch (APIManagementException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private static class PendingChange {
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private Auth0ResourceServerInfo resourceServer;
+        private String fingerprint;
+    }
+}
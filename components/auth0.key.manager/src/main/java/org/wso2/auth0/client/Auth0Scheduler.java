@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.auth0.client;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the scheduler shared by the background tasks of the Auth0 key manager, and creates the worker pools used for
+ * asynchronous and background calls.
+ */
+public final class Auth0Scheduler {
+    private static final int POOL_SIZE = 2;
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 60;
+    private static final int QUEUED_TASKS_PER_WORKER = 16;
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ScheduledExecutorService scheduler = createScheduler();
+
+    private Auth0Scheduler() {
+    }
+
+    /**
+     * Returns the shared scheduler. Tasks submitted here should be short lived since the pool is small.
+     *
+     * @return ScheduledExecutorService backed by daemon threads.
+     */
+    public static ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Creates a bounded pool of daemon threads for the asynchronous calls made to Auth0. Idle threads are released, so
+     * a pool that is not in use does not hold any threads. The queue of the pool is bounded as well. A task submitted
+     * while the queue is full is run by the submitting thread, which slows down the producers of background work
+     * instead of letting the queue grow. Tasks submitted after the pool is shut down are rejected.
+     *
+     * @param namePrefix prefix of the thread names.
+     * @param poolSize   maximum number of threads.
+     * @return ExecutorService.
+     */
+    public static ExecutorService newWorkerPool(String namePrefix, int poolSize) {
+        AtomicInteger workerCount = new AtomicInteger();
+        int threads = Math.max(1, poolSize);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, WORKER_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS, new ArrayBlockingQueue<>(threads * QUEUED_TASKS_PER_WORKER), runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, (runnable, pool) -> {
+            if (pool.isShutdown()) {
+                throw new RejectedExecutionException(namePrefix + " pool is shut down");
+            }
+            runnable.run();
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ScheduledExecutorService createScheduler() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(POOL_SIZE, runnable -> {
+            Thread thread = new Thread(runnable, "auth0-km-scheduler-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
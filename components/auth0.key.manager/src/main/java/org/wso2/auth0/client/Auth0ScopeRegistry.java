@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.auth0.client.model.Auth0ResourceServerClient;
+import org.wso2.auth0.client.model.Auth0ResourceServerInfo;
+import org.wso2.auth0.client.model.Auth0ResourceServerScope;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Keeps the scopes of the key manager as the scopes of one Auth0 resource server. Reads are served from an in-memory
+ * snapshot of the scopes. Auth0 has no change feed, so the snapshot is replaced by a fetch of the resource server
+ * once it is older than the refresh interval, in the background so that readers are not held up, and is updated in
+ * place by every write. A write is sent to Auth0 right away when no other write is being sent. Writes made while one
+ * is being sent are queued, and sent as a single update of the resource server once it completes. The update is built
+ * from the snapshot, and the resource server is fetched again only when the update fails.
+ */
+public class Auth0ScopeRegistry {
+    private static final Log log = LogFactory.getLog(Auth0ScopeRegistry.class);
+
+    private final Auth0ResourceServerClient resourceServerClient;
+    private final String resourceServerId;
+    private final long refreshInterval;
+    private final Executor executor;
+    private final Object lock = new Object();
+    private final Object batchLock = new Object();
+    private volatile Map<String, Auth0ResourceServerScope> scopes;
+    private volatile long lastRefreshTime;
+    private volatile boolean refreshInProgress;
+    private Map<String, Auth0ResourceServerScope> pendingChanges = new LinkedHashMap<>();
+    private CompletableFuture<Void> pendingFlush;
+    private boolean flushing;
+
+    /**
+     * @param resourceServerClient client of the resource servers endpoint of the Management API.
+     * @param resourceServerId     ID or identifier of the resource server holding the scopes.
+     * @param refreshInterval      age in milliseconds after which the snapshot is refreshed.
+     * @param executor             executor running the background refreshes.
+     */
+    public Auth0ScopeRegistry(Auth0ResourceServerClient resourceServerClient, String resourceServerId,
+                              long refreshInterval, Executor executor) {
+        this.resourceServerClient = resourceServerClient;
+        this.resourceServerId = resourceServerId;
+        this.refreshInterval = refreshInterval;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the scopes keyed by their value. The map is a snapshot and is not changed by later writes.
+     *
+     * @return scopes of the resource server.
+     * @throws APIManagementException if the scopes were never loaded and cannot be fetched.
+     */
+    public Map<String, Auth0ResourceServerScope> getScopes() throws APIManagementException {
+        Map<String, Auth0ResourceServerScope> currentScopes = scopes;
+        if (currentScopes == null) {
+            synchronized (lock) {
+                if (scopes == null) {
+                    refresh();
+                }
+                return scopes;
+            }
+        }
+        if (System.currentTimeMillis() - lastRefreshTime > refreshInterval && !refreshInProgress) {
+            refreshInProgress = true;
+            try {
+                executor.execute(() -> {
+                    try {
+                        synchronized (lock) {
+                            refresh();
+                        }
+                    } catch (APIManagementException e) {
+                        log.warn("Error while refreshing the scopes. Serving the scopes fetched earlier.", e);
+                    } finally {
+                        refreshInProgress = false;
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                refreshInProgress = false;
+            }
+        }
+        return currentScopes;
+    }
+
+    public Auth0ResourceServerScope getScope(String key) throws APIManagementException {
+        return getScopes().get(key);
+    }
+
+    /**
+     * Adds the scope, or replaces it if a scope with the same key exists.
+     *
+     * @param scope scope to add.
+     */
+    public void putScope(Auth0ResourceServerScope scope) throws APIManagementException {
+        write(scope.getValue(), scope);
+    }
+
+    public void deleteScope(String key) throws APIManagementException {
+        write(key, null);
+    }
+
+    /**
+     * Queues the change and waits until it is sent to Auth0. When no write is being sent, the calling thread sends the
+     * queued changes itself, along with the changes queued by other threads while it was sending.
+     *
+     * @param key   key of the scope.
+     * @param scope new scope, or null to delete it.
+     */
+    private void write(String key, Auth0ResourceServerScope scope) throws APIManagementException {
+        CompletableFuture<Void> flush;
+        boolean sender;
+        synchronized (batchLock) {
+            pendingChanges.put(key, scope);
+            if (pendingFlush == null) {
+                pendingFlush = new CompletableFuture<>();
+            }
+            flush = pendingFlush;
+            sender = !flushing;
+            flushing = true;
+        }
+        if (sender) {
+            flushPendingChanges();
+        }
+        try {
+            flush.join();
+        } catch (CompletionException e) {
+            throw new APIManagementException("Error while updating the scopes of the Auth0 resource server "
+                    + resourceServerId, e.getCause());
+        }
+    }
+
+    /**
+     * Sends the queued changes until none is left.
+     */
+    private void flushPendingChanges() {
+        while (true) {
+            Map<String, Auth0ResourceServerScope> changes;
+            CompletableFuture<Void> flush;
+            synchronized (batchLock) {
+                if (pendingChanges.isEmpty()) {
+                    flushing = false;
+                    return;
+                }
+                changes = pendingChanges;
+                flush = pendingFlush;
+                pendingChanges = new LinkedHashMap<>();
+                pendingFlush = null;
+            }
+            try {
+                flush(changes);
+                flush.complete(null);
+            } catch (APIManagementException | RuntimeException e) {
+                flush.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Sends the changes to Auth0 as an update built from the snapshot. If the update fails, for instance because the
+     * scopes were changed by others since the last refresh, the scopes are fetched again and the update is retried
+     * once, so that those scopes are not dropped by the update.
+     *
+     * @param changes new scopes keyed by their value, with null values for the deleted scopes.
+     */
+    private void flush(Map<String, Auth0ResourceServerScope> changes) throws APIManagementException {
+        synchronized (lock) {
+            if (scopes == null) {
+                refresh();
+            }
+            try {
+                update(scopes, changes);
+            } catch (RuntimeException e) {
+                log.warn("Error while updating the scopes of the Auth0 resource server " + resourceServerId
+                        + ". Retrying with the scopes fetched again. " + e.getMessage());
+                refresh();
+                update(scopes, changes);
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Sent " + changes.size() + " scope changes to the Auth0 resource server " + resourceServerId);
+        }
+    }
+
+    private void update(Map<String, Auth0ResourceServerScope> currentScopes,
+                        Map<String, Auth0ResourceServerScope> changes) {
+        Map<String, Auth0ResourceServerScope> updatedScopes = new LinkedHashMap<>(currentScopes);
+        for (Map.Entry<String, Auth0ResourceServerScope> change : changes.entrySet()) {
+            if (change.getValue() != null) {
+                updatedScopes.put(change.getKey(), change.getValue());
+            } else {
+                updatedScopes.remove(change.getKey());
+            }
+        }
+        Auth0ResourceServerInfo resourceServer = new Auth0ResourceServerInfo();
+        resourceServer.setScopes(new ArrayList<>(updatedScopes.values()));
+        setScopes(toScopeMap(resourceServerClient.updateResourceServer(resourceServerId, resourceServer)));
+    }
+
+    private void refresh() throws APIManagementException {
+        try {
+            setScopes(toScopeMap(resourceServerClient.getResourceServer(resourceServerId)));
+        } catch (RuntimeException e) {
+            throw new APIManagementException("Error while retrieving the scopes of the Auth0 resource server "
+                    + resourceServerId, e);
+        }
+    }
+
+    private void setScopes(Map<String, Auth0ResourceServerScope> newScopes) {
+        scopes = Collections.unmodifiableMap(newScopes);
+        lastRefreshTime = System.currentTimeMillis();
+    }
+
+    private static Map<String, Auth0ResourceServerScope> toScopeMap(Auth0ResourceServerInfo resourceServer) {
+        Map<String, Auth0ResourceServerScope> scopeMap = new LinkedHashMap<>();
+        if (resourceServer != null && resourceServer.getScopes() != null) {
+            for (Auth0ResourceServerScope scope : resourceServer.getScopes()) {
+                scopeMap.put(scope.getValue(), scope);
+            }
+        }
+        return scopeMap;
+    }
+}
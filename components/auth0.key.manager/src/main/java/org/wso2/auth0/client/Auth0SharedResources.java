@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Shares resources, such as the HTTP client of an Auth0 domain, among the key managers that need the same resource.
+ * A resource is created by the first key manager acquiring its key and closed once no key manager holds it. The
+ * holders are tracked weakly, since API Manager discards key managers without notice, and the resources of the key
+ * managers that were collected are closed in the background.
+ */
+public final class Auth0SharedResources {
+    private static final Log log = LogFactory.getLog(Auth0SharedResources.class);
+    private static final Map<String, SharedResource<?>> resources = new HashMap<>();
+    private static ScheduledFuture<?> scheduledSweep;
+
+    private Auth0SharedResources() {
+    }
+
+    /**
+     * Returns the resource of the key, creating it if no one holds it, and records the holder.
+     *
+     * @param holder  object holding the resource.
+     * @param key     key of the resource. Holders acquiring the same key share the resource.
+     * @param factory creates the resource.
+     * @param closer  closes the resource once it is no longer held. Must not refer to the holder.
+     * @param <T>     type of the resource.
+     * @return shared resource.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T acquire(Object holder, String key, Supplier<T> factory, Consumer<T> closer) {
+        synchronized (resources) {
+            SharedResource<T> resource = (SharedResource<T>) resources.get(key);
+            if (resource == null) {
+                resource = new SharedResource<>(factory.get(), closer);
+                resources.put(key, resource);
+                if (scheduledSweep == null) {
+                    scheduledSweep = Auth0Scheduler.getScheduler().scheduleWithFixedDelay(
+                            Auth0SharedResources::sweep, Auth0Constants.SHARED_RESOURCE_SWEEP_INTERVAL_SECONDS,
+                            Auth0Constants.SHARED_RESOURCE_SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+                }
+            } else if (log.isDebugEnabled()) {
+                log.debug("Sharing the existing resource " + key);
+            }
+            resource.addHolder(holder);
+            return resource.value;
+        }
+    }
+
+    /**
+     * Records another holder of a resource that is already shared, without creating it.
+     *
+     * @param holder object holding the resource.
+     * @param key    key of the resource.
+     * @return false if no one holds the resource any more, in which case it was closed.
+     */
+    public static boolean hold(Object holder, String key) {
+        synchronized (resources) {
+            SharedResource<?> resource = key != null ? resources.get(key) : null;
+            if (resource == null) {
+                return false;
+            }
+            resource.addHolder(holder);
+            return true;
+        }
+    }
+
+    /**
+     * Releases the resource of the key held by the holder, and closes it if no one else holds it.
+     *
+     * @param holder object holding the resource.
+     * @param key    key of the resource.
+     */
+    public static void release(Object holder, String key) {
+        SharedResource<?> closedResource = null;
+        synchronized (resources) {
+            SharedResource<?> resource = resources.get(key);
+            if (resource != null && resource.removeHolder(holder)) {
+                resources.remove(key);
+                closedResource = resource;
+            }
+        }
+        if (closedResource != null) {
+            closedResource.close(key);
+        }
+    }
+
+    /**
+     * @return number of resources currently shared.
+     */
+    public static int size() {
+        synchronized (resources) {
+            return resources.size();
+        }
+    }
+
+    /**
+     * Closes the resources whose holders were all collected.
+     */
+    private static void sweep() {
+        Map<String, SharedResource<?>> closedResources = new HashMap<>();
+        synchronized (resources) {
+            Iterator<Map.Entry<String, SharedResource<?>>> iterator = resources.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, SharedResource<?>> resource = iterator.next();
+                if (resource.getValue().removeHolder(null)) {
+                    iterator.remove();
+                    closedResources.put(resource.getKey(), resource.getValue());
+                }
+            }
+        }
+        for (Map.Entry<String, SharedResource<?>> resource : closedResources.entrySet()) {
+            resource.getValue().close(resource.getKey());
+        }
+    }
+
+    private static class SharedResource<T> {
+        private final T value;
+        private final Consumer<T> closer;
+        private final List<WeakReference<Object>> holders = new ArrayList<>();
+
+        SharedResource(T value, Consumer<T> closer) {
+            this.value = value;
+            this.closer = closer;
+        }
+
+        void addHolder(Object holder) {
+            for (WeakReference<Object> existingHolder : holders) {
+                if (existingHolder.get() == holder) {
+                    return;
+                }
+            }
+            holders.add(new WeakReference<>(holder));
+        }
+
+        /**
+         * Removes the holder, along with the holders that were collected.
+         *
+         * @param holder holder to remove, or null to only remove the collected holders.
+         * @return true if the resource is no longer held.
+         */
+        boolean removeHolder(Object holder) {
+            holders.removeIf(existingHolder -> existingHolder.get() == null || existingHolder.get() == holder);
+            return holders.isEmpty();
+        }
+
+        void close(String key) {
+            if (log.isDebugEnabled()) {
+                log.debug("Closing the resource " + key + " that is no longer in use");
+            }
+            try {
+                closer.accept(value);
+            } catch (RuntimeException e) {
+                log.warn("Error while closing the resource " + key, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical reads into one call. The first caller of a key makes the call, and the callers that
+ * arrive while it is in flight wait for it and receive its result, or its exception. Results are not kept once the
+ * call completes, so a read that starts afterwards makes a new call.
+ *
+ * @param <K> type of the keys identifying identical reads.
+ * @param <V> type of the results.
+ */
+public class Auth0SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlightCalls = new ConcurrentHashMap<>();
+    private final String endpoint;
+    private final Auth0Metrics metrics;
+
+    /**
+     * @param endpoint name under which the coalesced calls are recorded, such as {@code Auth0DCRClient.getApplication}.
+     * @param metrics  metrics recording the coalesced calls.
+     */
+    public Auth0SingleFlight(String endpoint, Auth0Metrics metrics) {
+        this.endpoint = endpoint;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the result of the call in flight for the key, or makes the call if there is none.
+     *
+     * @param key  key identifying the read.
+     * @param call makes the read.
+     * @return result of the call.
+     */
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlightCall = inFlightCalls.putIfAbsent(key, future);
+        if (inFlightCall != null) {
+            metrics.recordCoalescedCall(endpoint);
+            return await(inFlightCall);
+        }
+        try {
+            V result = call.get();
+            future.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightCalls.remove(key, future);
+        }
+    }
+
+    /**
+     * @return number of calls currently in flight.
+     */
+    public int getInFlightCount() {
+        return inFlightCalls.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> inFlightCall) {
+        try {
+            return inFlightCall.join();
+        } catch (CompletionException e) {
+            // Waiters see the exception of the call as if they had made it themselves.
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
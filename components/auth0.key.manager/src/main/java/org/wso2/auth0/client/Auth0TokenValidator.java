@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.auth0.client;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.auth0.client.model.Auth0JWKSClient;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.api.model.AccessTokenInfo;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+
+import java.lang.ref.WeakReference;
+import java.security.interfaces.RSAPublicKey;
+import java.text.ParseException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates the JWT access tokens issued by Auth0 locally, against the signing keys published in the JWKS endpoint
+ * of the tenant. The keys are cached and refreshed in the background, and fetched again when a token is signed with
+ * a key that is not known yet. Only tokens issued by the tenant for one of the expected audiences are accepted.
+ */
+public class Auth0TokenValidator {
+    private static final Log log = LogFactory.getLog(Auth0TokenValidator.class);
+
+    private final Auth0JWKSClient jwksClient;
+    private final String issuer;
+    private final Set<String> audiences;
+    private final String audiencePrefix;
+    private final Object refreshLock = new Object();
+    private volatile Map<String, RSAPublicKey> signingKeys = Collections.emptyMap();
+    private volatile long lastRefreshTime;
+    private volatile ScheduledFuture<?> scheduledRefresh;
+
+    /**
+     * @param jwksClient      client of the JWKS endpoint of the tenant.
+     * @param issuer          issuer of the tokens issued by the tenant.
+     * @param audiences       audiences of the tokens that are accepted.
+     * @param audiencePrefix  prefix of further audiences that are accepted, or null if there is none.
+     * @param refreshInterval interval between background refreshes of the signing keys in milliseconds.
+     */
+    public Auth0TokenValidator(Auth0JWKSClient jwksClient, String issuer, Collection<String> audiences,
+                               String audiencePrefix, long refreshInterval) {
+        if (StringUtils.isEmpty(issuer)) {
+            throw new IllegalArgumentException("Issuer of the tokens is not provided");
+        }
+        this.jwksClient = jwksClient;
+        this.issuer = issuer;
+        this.audiences = Collections.unmodifiableSet(new LinkedHashSet<>(audiences));
+        this.audiencePrefix = StringUtils.isNotEmpty(audiencePrefix) ? audiencePrefix : null;
+        this.scheduledRefresh = Auth0Scheduler.getScheduler().scheduleWithFixedDelay(new RefreshTask(this), 0,
+                refreshInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks whether the token is a JWT issued by the configured Auth0 tenant. The signature is not verified.
+     *
+     * @param accessToken access token.
+     * @return true if the token was issued by the tenant.
+     */
+    public boolean isIssuedByTenant(String accessToken) {
+        if (StringUtils.countMatches(accessToken, ".") != 2) {
+            return false;
+        }
+        try {
+            return issuer.equals(SignedJWT.parse(accessToken).getJWTClaimsSet().getIssuer());
+        } catch (ParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Validates the token and keeps the claims mapped to an {@code AccessTokenInfo}.
+     *
+     * @param accessToken access token.
+     * @return ValidatedToken marked as invalid when the token cannot be trusted.
+     */
+    public ValidatedToken validate(String accessToken) throws APIManagementException {
+        try {
+            SignedJWT signedJWT = SignedJWT.parse(accessToken);
+            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
+            if (!JWSAlgorithm.RS256.equals(signedJWT.getHeader().getAlgorithm())) {
+                return invalidToken("Unsupported signing algorithm " + signedJWT.getHeader().getAlgorithm());
+            }
+            RSAPublicKey signingKey = getSigningKey(signedJWT.getHeader().getKeyID());
+            if (signingKey == null) {
+                return invalidToken("Unknown signing key " + signedJWT.getHeader().getKeyID());
+            }
+            if (!signedJWT.verify(new RSASSAVerifier(signingKey))) {
+                return invalidToken("Invalid signature");
+            }
+            if (!issuer.equals(claims.getIssuer())) {
+                return invalidToken("Invalid issuer " + claims.getIssuer());
+            }
+            if (!hasExpectedAudience(claims.getAudience())) {
+                return invalidToken("Invalid audience " + claims.getAudience());
+            }
+            long now = System.currentTimeMillis();
+            long clockSkew = TimeUnit.SECONDS.toMillis(Auth0Constants.JWT_CLOCK_SKEW_SECONDS);
+            Date expiryTime = claims.getExpirationTime();
+            if (expiryTime == null || expiryTime.getTime() + clockSkew < now) {
+                return invalidToken("Token is expired");
+            }
+            if (claims.getNotBeforeTime() != null && claims.getNotBeforeTime().getTime() - clockSkew > now) {
+                return invalidToken("Token is not yet valid");
+            }
+            String scope = claims.getStringClaim(Auth0Constants.SCOPE);
+            long issuedTime = claims.getIssueTime() != null ? claims.getIssueTime().getTime() : now;
+            return new ValidatedToken(true, claims.getStringClaim(Auth0Constants.AZP), claims.getSubject(),
+                    Auth0Constants.CLIENT_CREDENTIALS_GRANT_TYPE_CLAIM_VALUE.equals(
+                            claims.getClaim(Auth0Constants.GRANT_TYPE_CLAIM)),
+                    StringUtils.isNotEmpty(scope) ? scope.trim().split("\\s+") : null, issuedTime,
+                    expiryTime.getTime());
+        } catch (ParseException e) {
+            return invalidToken("Token is not a valid JWT");
+        } catch (JOSEException e) {
+            throw new APIManagementException("Error while verifying the signature of the token", e);
+        }
+    }
+
+    /**
+     * Stops the background refresh of the signing keys.
+     */
+    public void shutdown() {
+        ScheduledFuture<?> refreshTask = scheduledRefresh;
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+        }
+    }
+
+    /**
+     * Checks whether one of the audiences of a token is expected. Auth0 adds the userinfo endpoint to the audiences of
+     * tokens requested with the openid scope, so a single match is enough.
+     *
+     * @param tokenAudiences audiences of the token.
+     * @return true if an audience of the token is expected.
+     */
+    private boolean hasExpectedAudience(List<String> tokenAudiences) {
+        if (tokenAudiences == null) {
+            return false;
+        }
+        for (String tokenAudience : tokenAudiences) {
+            if (audiences.contains(tokenAudience)
+                    || (audiencePrefix != null && tokenAudience != null && tokenAudience.startsWith(audiencePrefix))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ValidatedToken invalidToken(String reason) {
+        if (log.isDebugEnabled()) {
+            log.debug("Token validation failed. " + reason);
+        }
+        return ValidatedToken.INVALID;
+    }
+
+    /**
+     * Returns the signing key with the given key ID. Unknown key IDs trigger a refresh of the keys, at most once per
+     * minimum refresh interval so that tokens with random key IDs cannot flood the JWKS endpoint.
+     *
+     * @param keyId key ID from the token header.
+     * @return signing key or null if there is no such key.
+     */
+    private RSAPublicKey getSigningKey(String keyId) {
+        if (keyId == null) {
+            return null;
+        }
+        RSAPublicKey signingKey = signingKeys.get(keyId);
+        if (signingKey == null && System.currentTimeMillis() - lastRefreshTime
+                > TimeUnit.SECONDS.toMillis(Auth0Constants.JWKS_MIN_REFRESH_INTERVAL_SECONDS)) {
+            synchronized (refreshLock) {
+                signingKey = signingKeys.get(keyId);
+                if (signingKey == null && System.currentTimeMillis() - lastRefreshTime
+                        > TimeUnit.SECONDS.toMillis(Auth0Constants.JWKS_MIN_REFRESH_INTERVAL_SECONDS)) {
+                    refreshSigningKeys();
+                    signingKey = signingKeys.get(keyId);
+                }
+            }
+        }
+        return signingKey;
+    }
+
+    /**
+     * Fetches the signing keys from the JWKS endpoint and replaces the cached keys.
+     */
+    private void refreshSigningKeys() {
+        lastRefreshTime = System.currentTimeMillis();
+        try {
+            JWKSet jwkSet = JWKSet.parse(jwksClient.getJWKS());
+            Map<String, RSAPublicKey> keys = new HashMap<>();
+            for (JWK jwk : jwkSet.getKeys()) {
+                if (jwk instanceof RSAKey && jwk.getKeyID() != null) {
+                    keys.put(jwk.getKeyID(), ((RSAKey) jwk).toRSAPublicKey());
+                }
+            }
+            signingKeys = Collections.unmodifiableMap(keys);
+        } catch (ParseException | JOSEException e) {
+            log.error("Error while reading the signing keys of the Auth0 tenant", e);
+        } catch (RuntimeException e) {
+            log.error("Error while retrieving the signing keys of the Auth0 tenant", e);
+        }
+    }
+
+    /**
+     * Outcome of the validation of a token. It is immutable so that it can be cached, and a new
+     * {@code AccessTokenInfo} is created from it for every caller.
+     */
+    public static class ValidatedToken {
+        private static final ValidatedToken INVALID = new ValidatedToken(false, null, null, false, null, 0, 0);
+
+        private final boolean valid;
+        private final String consumerKey;
+        private final String endUserName;
+        private final boolean applicationToken;
+        private final String[] scopes;
+        private final long issuedTime;
+        private final long expiryTime;
+
+        ValidatedToken(boolean valid, String consumerKey, String endUserName, boolean applicationToken,
+                       String[] scopes, long issuedTime, long expiryTime) {
+            this.valid = valid;
+            this.consumerKey = consumerKey;
+            this.endUserName = endUserName;
+            this.applicationToken = applicationToken;
+            this.scopes = scopes;
+            this.issuedTime = issuedTime;
+            this.expiryTime = expiryTime;
+        }
+
+        public boolean isValid() {
+            return valid;
+        }
+
+        public String getConsumerKey() {
+            return consumerKey;
+        }
+
+        public long getExpiryTime() {
+            return expiryTime;
+        }
+
+        /**
+         * Creates the {@code AccessTokenInfo} of the token.
+         *
+         * @param accessToken access token.
+         * @return AccessTokenInfo object.
+         */
+        public AccessTokenInfo toAccessTokenInfo(String accessToken) {
+            AccessTokenInfo tokenInfo = new AccessTokenInfo();
+            tokenInfo.setAccessToken(accessToken);
+            tokenInfo.setTokenValid(valid);
+            if (!valid) {
+                tokenInfo.setErrorcode(APIConstants.KeyValidationStatus.API_AUTH_INVALID_CREDENTIALS);
+                return tokenInfo;
+            }
+            tokenInfo.setConsumerKey(consumerKey);
+            tokenInfo.setEndUserName(endUserName);
+            tokenInfo.setApplicationToken(applicationToken);
+            if (scopes != null) {
+                tokenInfo.setScope(scopes.clone());
+            }
+            tokenInfo.setIssuedTime(issuedTime);
+            tokenInfo.setValidityPeriod(expiryTime - issuedTime);
+            return tokenInfo;
+        }
+    }
+
+    /**
+     * Background refresh task. Holds the validator weakly so that a discarded configuration does not keep fetching
+     * keys forever.
+     */
+    private static class RefreshTask implements Runnable {
+        private final WeakReference<Auth0TokenValidator> validator;
+
+        RefreshTask(Auth0TokenValidator validator) {
+            this.validator = new WeakReference<>(validator);
+        }
+
+        @Override
+        public void run() {
+            Auth0TokenValidator tokenValidator = validator.get();
+            if (tokenValidator == null) {
+                // Throwing stops the periodic execution of the task.
+                throw new IllegalStateException("Token validator is no longer in use");
+            }
+            synchronized (tokenValidator.refreshLock) {
+                tokenValidator.refreshSigningKeys();
+            }
+        }
+    }
+}
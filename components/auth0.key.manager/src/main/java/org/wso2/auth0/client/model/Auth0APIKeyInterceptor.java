@@ -24,51 +24,496 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.auth0.client.Auth0Constants;
 import org.wso2.auth0.client.Auth0OAuthClient;
+import org.wso2.auth0.client.Auth0Scheduler;
 import org.wso2.carbon.apimgt.api.APIManagementException;
 
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
 public class Auth0APIKeyInterceptor implements RequestInterceptor {
     private static final Log log = LogFactory.getLog(Auth0APIKeyInterceptor.class);
+    private static final long MIN_REFRESH_DELAY_MILLIS = 1000L;
+    private static final long RETRY_BASE_DELAY_MILLIS = 1000L;
+    private static final long RETRY_MAX_DELAY_MILLIS = 60000L;
+    private static final long TOKEN_STORE_LEASE_MILLIS = 60000L;
+    private static final long TOKEN_STORE_WAIT_MILLIS = 5000L;
+    private static final long TOKEN_STORE_POLL_MILLIS = 100L;
 
-    private Auth0AccessTokenResponse accessTokenInfo;
+    private final AtomicReference<Auth0AccessTokenResponse> accessTokenInfo = new AtomicReference<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong refreshFailureCount = new AtomicLong();
+    private final AtomicLong lastRefreshLatency = new AtomicLong();
+    private final AtomicLong totalRefreshLatency = new AtomicLong();
+    private final AtomicLong sharedTokenCount = new AtomicLong();
+    private final String tokenStoreOwner = UUID.randomUUID().toString();
+    private final Object scheduleLock = new Object();
     private Auth0TokenClient auth0TokenClient;
     private String consumerKey;
     private String consumerSecret;
     private String audience;
+    private double refreshRatio;
+    private volatile ScheduledFuture<?> scheduledRefresh;
+    private volatile boolean usedSinceRefresh;
+    private volatile HealthState healthState = HealthState.UNKNOWN;
+    private volatile int consecutiveFailures;
+    private volatile long nextAttemptTime;
+    private volatile Auth0ManagementTokenStore tokenStore;
+    private volatile String tokenStoreKey;
+    private CompletableFuture<Auth0AccessTokenResponse> sharedTokenWait;
 
     public Auth0APIKeyInterceptor(Auth0TokenClient auth0TokenClient, String consumerKey, String consumerSecret,
                                   String audience) {
+        this(auth0TokenClient, consumerKey, consumerSecret, audience, Auth0Constants.DEFAULT_TOKEN_REFRESH_RATIO);
+    }
+
+    public Auth0APIKeyInterceptor(Auth0TokenClient auth0TokenClient, String consumerKey, String consumerSecret,
+                                  String audience, double refreshRatio) {
         this.auth0TokenClient = auth0TokenClient;
         this.consumerKey = consumerKey;
         this.consumerSecret = consumerSecret;
         this.audience = audience;
-        getAccessToken();
+        this.refreshRatio = refreshRatio > 0 && refreshRatio < 1 ? refreshRatio :
+                Auth0Constants.DEFAULT_TOKEN_REFRESH_RATIO;
     }
 
+    /**
+     * Adds the management API token to the request. The first token is fetched by the first request, so that
+     * configuring many key managers does not fetch tokens that may never be used.
+     */
     @Override
     public void apply(RequestTemplate requestTemplate) {
-        if (accessTokenInfo == null || (System.currentTimeMillis() >
-                (accessTokenInfo.getCreatedAt() + accessTokenInfo.getExpiry() * 1000))) {
-            getAccessToken();
+        // Read first, so that requests do not write the shared field once it is set.
+        if (!usedSinceRefresh) {
+            usedSinceRefresh = true;
+        }
+        Auth0AccessTokenResponse currentToken = accessTokenInfo.get();
+        if (currentToken == null || isExpired(currentToken)) {
+            currentToken = refreshAccessToken(currentToken, false);
+        }
+        if (currentToken == null || isExpired(currentToken)) {
+            throw new Auth0ManagementTokenException(consumerKey, Math.max(0,
+                    nextAttemptTime - System.currentTimeMillis()));
+        }
+        requestTemplate.header("Authorization", "Bearer ".concat(currentToken.getAccessToken()));
+    }
+
+    /**
+     * Fetches the first token in the background, without waiting for it. A failed fetch is retried with backoff
+     * while requests use the interceptor. Does nothing if a token was already fetched.
+     */
+    public void start() {
+        synchronized (scheduleLock) {
+            if (accessTokenInfo.get() == null && scheduledRefresh == null) {
+                schedule(new RefreshTask(this, true, true), 0);
+            }
+        }
+    }
+
+    /**
+     * Takes over the token of the interceptor created for the earlier client secret of the same client. The token
+     * stays in use while a token is fetched with the new secret in the background, so that rotating the secret does
+     * not hold up requests. Does nothing if this interceptor already has a token.
+     *
+     * @param previous interceptor of the same client and audience with the earlier secret.
+     */
+    public void takeOverToken(Auth0APIKeyInterceptor previous) {
+        Auth0AccessTokenResponse previousToken = previous.accessTokenInfo.get();
+        if (previousToken == null || isExpired(previousToken) || !accessTokenInfo.compareAndSet(null, previousToken)) {
+            return;
+        }
+        schedule(new RefreshTask(this, true, true), 0);
+    }
+
+    /**
+     * Shares the token with the other nodes through the store. Before fetching a token, the store is checked for a
+     * token published by another node, and the node fetching the token holds the lease of the store, so that the
+     * cluster fetches one token per refresh. If the store is not reachable, the token is fetched locally.
+     *
+     * @param store store to share the token through, or null to fetch the token locally.
+     * @param key   key under which the token is shared.
+     */
+    public void setTokenStore(Auth0ManagementTokenStore store, String key) {
+        tokenStoreKey = key;
+        tokenStore = store;
+    }
+
+    /**
+     * @return state of the management API token: unknown until the first fetch, healthy while the last fetch
+     * succeeded and unhealthy while it failed.
+     */
+    public HealthState getHealthState() {
+        return healthState;
+    }
+
+    /**
+     * @return number of fetches of the token that failed since the last successful one.
+     */
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * Stops the background refresh of the management API token.
+     */
+    public void shutdown() {
+        ScheduledFuture<?> refreshTask = scheduledRefresh;
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+        }
+    }
+
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    public long getRefreshFailureCount() {
+        return refreshFailureCount.get();
+    }
+
+    /**
+     * @return number of tokens taken from the token store instead of being fetched.
+     */
+    public long getSharedTokenCount() {
+        return sharedTokenCount.get();
+    }
+
+    /**
+     * @return time taken by the last token refresh in milliseconds.
+     */
+    public long getLastRefreshLatency() {
+        return lastRefreshLatency.get();
+    }
+
+    /**
+     * @return average time taken by the successful token refreshes in milliseconds.
+     */
+    public long getAverageRefreshLatency() {
+        long count = refreshCount.get();
+        return count > 0 ? totalRefreshLatency.get() / count : 0;
+    }
+
+    private static boolean isExpired(Auth0AccessTokenResponse token) {
+        return System.currentTimeMillis() > (token.getCreatedAt() + token.getExpiry() * 1000);
+    }
+
+    /**
+     * Renews the access token of the management API unless another thread already replaced the token observed by
+     * the caller. Only one refresh runs at a time, concurrent callers wait for it and reuse its result. After a
+     * failed fetch, requests do not fetch the token again until the backoff delay has passed, so that an unreachable
+     * tenant is not called by every request. While another node fetches the token, the callers wait for it without
+     * holding the refresh lock.
+     *
+     * @param observedToken token the caller found to be stale, null if there was none.
+     * @param retry         whether this is the background retry, which is not subject to the backoff delay.
+     * @return the current token after the refresh.
+     */
+    private Auth0AccessTokenResponse refreshAccessToken(Auth0AccessTokenResponse observedToken, boolean retry) {
+        CompletableFuture<Auth0AccessTokenResponse> publishedToken;
+        refreshLock.lock();
+        try {
+            Auth0AccessTokenResponse currentToken = accessTokenInfo.get();
+            if (currentToken != null && currentToken != observedToken && !isExpired(currentToken)) {
+                return currentToken;
+            }
+            if (!retry && System.currentTimeMillis() < nextAttemptTime) {
+                return currentToken;
+            }
+            publishedToken = getAccessToken();
+            if (publishedToken == null) {
+                return accessTokenInfo.get();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+        try {
+            return publishedToken.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Error while waiting for the management API token for client ID : " + consumerKey, e);
+        }
+        return accessTokenInfo.get();
+    }
+
+    /**
+     * Returns whether the token is due for a refresh, which is the case once the refresh ratio of its lifetime has
+     * passed.
+     */
+    private boolean isDueForRefresh(Auth0AccessTokenResponse token) {
+        return token == null || token.getAccessToken() == null || System.currentTimeMillis()
+                >= token.getCreatedAt() + (long) (token.getExpiry() * 1000 * refreshRatio);
+    }
+
+    /**
+     * Renew the access token of the management API, taking the token published by another node when a token store
+     * is configured. Called with the refresh lock held.
+     *
+     * @return future of the token being fetched by another node, which the caller waits for after releasing the
+     * refresh lock, or null if the token was renewed.
+     */
+    private CompletableFuture<Auth0AccessTokenResponse> getAccessToken() {
+        Auth0ManagementTokenStore store = tokenStore;
+        String storeKey = tokenStoreKey;
+        if (store == null) {
+            fetchAccessToken(null, null);
+            return null;
+        }
+        boolean leased;
+        try {
+            Auth0AccessTokenResponse sharedToken = store.getToken(storeKey);
+            if (!isDueForRefresh(sharedToken)) {
+                useSharedToken(sharedToken);
+                return null;
+            }
+            leased = store.tryAcquireLease(storeKey, tokenStoreOwner, TOKEN_STORE_LEASE_MILLIS);
+            if (!leased) {
+                Auth0AccessTokenResponse currentToken = accessTokenInfo.get();
+                if (currentToken != null && !isExpired(currentToken)) {
+                    // Another node is fetching the token, which is picked up once published.
+                    schedule(new RefreshTask(this, true, true), MIN_REFRESH_DELAY_MILLIS);
+                    return null;
+                }
+                return awaitSharedToken(store, storeKey);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Management API token store is not available, fetching the token for client ID : "
+                    + consumerKey + " locally. " + e.getMessage());
+            if (log.isDebugEnabled()) {
+                log.debug("Error while accessing the management API token store", e);
+            }
+            fetchAccessToken(null, null);
+            return null;
+        }
+        fetchAccessToken(store, storeKey);
+        return null;
+    }
+
+    /**
+     * Polls the store in the background until the node holding the lease publishes the token. Concurrent callers
+     * share the same poll. Called with the refresh lock held.
+     *
+     * @return future completed with the current token once the published token is taken, or once the token is fetched
+     * locally because none was published in time.
+     */
+    private CompletableFuture<Auth0AccessTokenResponse> awaitSharedToken(Auth0ManagementTokenStore store,
+                                                                         String storeKey) {
+        CompletableFuture<Auth0AccessTokenResponse> publishedToken = sharedTokenWait;
+        if (publishedToken == null || publishedToken.isDone()) {
+            publishedToken = new CompletableFuture<>();
+            long deadline = System.currentTimeMillis() + TOKEN_STORE_WAIT_MILLIS;
+            CompletableFuture<Auth0AccessTokenResponse> result = publishedToken;
+            Auth0Scheduler.getScheduler().schedule(() -> pollSharedToken(result, store, storeKey, deadline),
+                    TOKEN_STORE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            sharedTokenWait = publishedToken;
         }
-        requestTemplate.header("Authorization", "Bearer ".concat(accessTokenInfo.getAccessToken()));
+        return publishedToken;
     }
 
+    private void pollSharedToken(CompletableFuture<Auth0AccessTokenResponse> publishedToken,
+                                 Auth0ManagementTokenStore store, String storeKey, long deadline) {
+        try {
+            Auth0AccessTokenResponse sharedToken = store.getToken(storeKey);
+            if (!isDueForRefresh(sharedToken)) {
+                refreshLock.lock();
+                try {
+                    useSharedToken(sharedToken);
+                } finally {
+                    refreshLock.unlock();
+                }
+                publishedToken.complete(sharedToken);
+                return;
+            }
+            if (System.currentTimeMillis() < deadline) {
+                Auth0Scheduler.getScheduler().schedule(() -> pollSharedToken(publishedToken, store, storeKey,
+                        deadline), TOKEN_STORE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                return;
+            }
+            log.warn("Management API token for client ID : " + consumerKey + " was not published by the node "
+                    + "fetching it, fetching the token locally");
+        } catch (IOException | RuntimeException e) {
+            log.warn("Management API token store is not available, fetching the token for client ID : "
+                    + consumerKey + " locally. " + e.getMessage());
+        }
+        refreshLock.lock();
+        try {
+            fetchAccessToken(null, null);
+        } finally {
+            refreshLock.unlock();
+            publishedToken.complete(accessTokenInfo.get());
+        }
+    }
+
+    private void useSharedToken(Auth0AccessTokenResponse sharedToken) {
+        accessTokenInfo.set(sharedToken);
+        sharedTokenCount.incrementAndGet();
+        updateHealthState(true);
+        scheduleRefresh(true);
+    }
 
     /**
-     * Renew the access token of the management API
+     * Fetches the token from Auth0, and publishes it to the store when this node holds the lease of the store.
+     *
+     * @param leasedStore store whose lease is held, or null.
+     * @param storeKey    key under which the token is published.
      */
-    private void getAccessToken() {
+    private void fetchAccessToken(Auth0ManagementTokenStore leasedStore, String storeKey) {
+        long startTime = System.currentTimeMillis();
+        boolean refreshed = false;
         try {
-            String basicCredentials = Auth0OAuthClient.getEncodedCredentials(this.consumerKey, this.consumerSecret);
+            String basicCredentials = Auth0OAuthClient.getEncodedCredentials(this.consumerKey, consumerSecret);
             Auth0AccessTokenResponse accessTokenResponse =
                     auth0TokenClient.getAccessToken(Auth0Constants.GRANT_TYPE_CLIENT_CREDENTIALS, this.audience,
                             "", basicCredentials);
             if (accessTokenResponse != null) {
-                this.accessTokenInfo = accessTokenResponse;
-                this.accessTokenInfo.setCreatedAt(System.currentTimeMillis());
+                accessTokenResponse.setCreatedAt(System.currentTimeMillis());
+                this.accessTokenInfo.set(accessTokenResponse);
+                refreshed = true;
+                if (leasedStore != null) {
+                    publishToken(leasedStore, storeKey, accessTokenResponse);
+                }
             }
         } catch (APIManagementException e) {
             log.error("Error while encoding credentials for client ID : " + this.consumerKey, e);
+        } catch (RuntimeException e) {
+            log.error("Error while retrieving the management API token for client ID : " + this.consumerKey, e);
+        } finally {
+            if (leasedStore != null) {
+                releaseLease(leasedStore, storeKey);
+            }
+            long latency = System.currentTimeMillis() - startTime;
+            lastRefreshLatency.set(latency);
+            if (refreshed) {
+                refreshCount.incrementAndGet();
+                totalRefreshLatency.addAndGet(latency);
+            } else {
+                refreshFailureCount.incrementAndGet();
+            }
+            updateHealthState(refreshed);
+            scheduleRefresh(refreshed);
+        }
+    }
+
+    private void publishToken(Auth0ManagementTokenStore store, String storeKey, Auth0AccessTokenResponse token) {
+        try {
+            store.putToken(storeKey, token);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Error while publishing the management API token for client ID : " + consumerKey, e);
+        }
+    }
+
+    private void releaseLease(Auth0ManagementTokenStore store, String storeKey) {
+        try {
+            store.releaseLease(storeKey, tokenStoreOwner);
+        } catch (IOException | RuntimeException e) {
+            // The lease expires by itself.
+            log.warn("Error while releasing the management API token lease for client ID : " + consumerKey, e);
+        }
+    }
+
+    private void updateHealthState(boolean refreshed) {
+        if (refreshed) {
+            if (healthState == HealthState.UNHEALTHY) {
+                log.info("Management API token for client ID : " + consumerKey + " is available again after "
+                        + consecutiveFailures + " failed attempts");
+            }
+            healthState = HealthState.HEALTHY;
+            consecutiveFailures = 0;
+            nextAttemptTime = 0;
+        } else {
+            healthState = HealthState.UNHEALTHY;
+            consecutiveFailures++;
+            nextAttemptTime = System.currentTimeMillis() + getRetryDelay();
+        }
+    }
+
+    /**
+     * Returns the delay before the next attempt after a failure, doubling with every consecutive failure up to the
+     * maximum delay. The delay is randomized, so that key managers that failed together do not retry together.
+     */
+    private long getRetryDelay() {
+        long delay = RETRY_BASE_DELAY_MILLIS << Math.min(consecutiveFailures - 1, 16);
+        delay = Math.min(delay, RETRY_MAX_DELAY_MILLIS);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private void scheduleRefresh(boolean refreshed) {
+        long delay;
+        if (refreshed) {
+            Auth0AccessTokenResponse currentToken = accessTokenInfo.get();
+            // A token taken from the store was fetched earlier, so the delay counts from its creation.
+            delay = Math.max(MIN_REFRESH_DELAY_MILLIS, currentToken.getCreatedAt()
+                    + (long) (currentToken.getExpiry() * 1000 * refreshRatio) - System.currentTimeMillis());
+        } else {
+            delay = Math.max(0, nextAttemptTime - System.currentTimeMillis());
+        }
+        schedule(new RefreshTask(this, !refreshed, false), delay);
+    }
+
+    /**
+     * Schedules the refresh task, cancelling the one scheduled before, so that only one refresh is ever pending.
+     *
+     * @param refreshTask task to schedule.
+     * @param delay       delay in milliseconds.
+     */
+    private void schedule(RefreshTask refreshTask, long delay) {
+        synchronized (scheduleLock) {
+            ScheduledFuture<?> previousTask = scheduledRefresh;
+            if (previousTask != null) {
+                previousTask.cancel(false);
+            }
+            scheduledRefresh = Auth0Scheduler.getScheduler().schedule(refreshTask, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * State of the management API token.
+     */
+    public enum HealthState {
+        UNKNOWN, HEALTHY, UNHEALTHY
+    }
+
+    /**
+     * Background refresh task. Holds the interceptor weakly so that a discarded configuration does not keep
+     * refreshing tokens forever, and stops refreshing and retrying while the interceptor is idle.
+     */
+    private static class RefreshTask implements Runnable {
+        private final WeakReference<Auth0APIKeyInterceptor> interceptor;
+        private final boolean retry;
+        private final boolean forced;
+
+        /**
+         * @param interceptor interceptor whose token is refreshed.
+         * @param retry       whether the fetch is not subject to the backoff delay.
+         * @param forced      whether the fetch is made even if no request used the interceptor since the last one.
+         */
+        RefreshTask(Auth0APIKeyInterceptor interceptor, boolean retry, boolean forced) {
+            this.interceptor = new WeakReference<>(interceptor);
+            this.retry = retry;
+            this.forced = forced;
+        }
+
+        @Override
+        public void run() {
+            Auth0APIKeyInterceptor apiKeyInterceptor = interceptor.get();
+            if (apiKeyInterceptor == null) {
+                return;
+            }
+            // A token that was not used since the last refresh is left to expire, and fetched again when needed. A
+            // failed fetch is not retried either, the next request fetches the token once the backoff delay passed.
+            if (forced || apiKeyInterceptor.usedSinceRefresh) {
+                apiKeyInterceptor.usedSinceRefresh = false;
+                apiKeyInterceptor.refreshAccessToken(apiKeyInterceptor.accessTokenInfo.get(), retry);
+            }
         }
     }
 }
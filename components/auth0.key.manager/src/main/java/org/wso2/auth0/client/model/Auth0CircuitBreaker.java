@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client.model;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Circuit breaker of one Auth0 endpoint. The outcome of the last calls is kept in a sliding window, and the circuit
+ * opens when the share of failed or slow calls in the window reaches its threshold. While open, calls are rejected
+ * without reaching Auth0. Once the wait duration is over a single probe call is let through, which closes the circuit
+ * if it succeeds and opens it again otherwise.
+ */
+public class Auth0CircuitBreaker {
+    private static final Log log = LogFactory.getLog(Auth0CircuitBreaker.class);
+
+    /**
+     * States of the circuit.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Notified of the state transitions of the circuit.
+     */
+    public interface StateListener {
+        void onStateChange(String name, State from, State to);
+    }
+
+    private final String name;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallThreshold;
+    private final long waitDuration;
+    private final int minimumCalls;
+    private final StateListener listener;
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int callIndex;
+    private int callCount;
+    private int failedCallCount;
+    private int slowCallCount;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probeInProgress;
+
+    /**
+     * @param name                  name of the endpoint, used in the logs.
+     * @param failureRateThreshold  percentage of failed calls in the window at which the circuit opens.
+     * @param slowCallRateThreshold percentage of slow calls in the window at which the circuit opens.
+     * @param slowCallThreshold     duration in milliseconds above which a call is slow.
+     * @param waitDuration          time in milliseconds the circuit stays open before letting a probe call through.
+     * @param windowSize            number of calls in the sliding window.
+     * @param listener              listener of the state transitions, or null.
+     */
+    public Auth0CircuitBreaker(String name, double failureRateThreshold, double slowCallRateThreshold,
+                               long slowCallThreshold, long waitDuration, int windowSize, StateListener listener) {
+        this.name = name;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallThreshold = slowCallThreshold;
+        this.waitDuration = waitDuration;
+        this.failedCalls = new boolean[Math.max(1, windowSize)];
+        this.slowCalls = new boolean[failedCalls.length];
+        // A couple of failures right after startup should not open the circuit.
+        this.minimumCalls = Math.max(1, failedCalls.length / 2);
+        this.listener = listener;
+    }
+
+    /**
+     * Checks whether a call can be made. A caller that is let through must report the outcome with
+     * {@link #onResult(boolean, long)}.
+     *
+     * @return false if the call must be rejected.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < waitDuration) {
+                    return false;
+                }
+                transition(State.HALF_OPEN);
+                probeInProgress = true;
+                return true;
+            default:
+                if (probeInProgress) {
+                    return false;
+                }
+                probeInProgress = true;
+                return true;
+        }
+    }
+
+    /**
+     * Records the outcome of a call.
+     *
+     * @param failed  whether the call failed.
+     * @param latency duration of the call in milliseconds.
+     */
+    public synchronized void onResult(boolean failed, long latency) {
+        boolean slow = latency > slowCallThreshold;
+        if (state == State.HALF_OPEN) {
+            probeInProgress = false;
+            transition(failed || slow ? State.OPEN : State.CLOSED);
+            return;
+        }
+        if (state == State.OPEN) {
+            // The call started before the circuit opened.
+            return;
+        }
+        if (callCount == failedCalls.length) {
+            failedCallCount -= failedCalls[callIndex] ? 1 : 0;
+            slowCallCount -= slowCalls[callIndex] ? 1 : 0;
+        } else {
+            callCount++;
+        }
+        failedCalls[callIndex] = failed;
+        slowCalls[callIndex] = slow;
+        failedCallCount += failed ? 1 : 0;
+        slowCallCount += slow ? 1 : 0;
+        callIndex = (callIndex + 1) % failedCalls.length;
+        if (callCount >= minimumCalls && (failedCallCount * 100.0 / callCount >= failureRateThreshold
+                || slowCallCount * 100.0 / callCount >= slowCallRateThreshold)) {
+            transition(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return time in milliseconds until the open circuit lets a probe call through, or 0 if it is not open.
+     */
+    public synchronized long getRemainingOpenTime() {
+        return state == State.OPEN ? Math.max(0, openedAt + waitDuration - System.currentTimeMillis()) : 0;
+    }
+
+    private void transition(State newState) {
+        State oldState = state;
+        state = newState;
+        if (newState == State.OPEN && oldState == State.HALF_OPEN) {
+            openedAt = System.currentTimeMillis();
+            log.warn("Probe call to the Auth0 endpoint " + name + " failed. Calls are rejected for another "
+                    + waitDuration + " ms.");
+        } else if (newState == State.OPEN) {
+            openedAt = System.currentTimeMillis();
+            log.warn("Circuit of the Auth0 endpoint " + name + " is open after " + failedCallCount + " failed and "
+                    + slowCallCount + " slow calls out of " + callCount + ". Calls are rejected for " + waitDuration
+                    + " ms.");
+        } else if (newState == State.CLOSED) {
+            log.info("Circuit of the Auth0 endpoint " + name + " is closed");
+        } else if (log.isDebugEnabled()) {
+            log.debug("Circuit of the Auth0 endpoint " + name + " is half open. Letting a probe call through.");
+        }
+        if (newState != State.HALF_OPEN) {
+            callIndex = 0;
+            callCount = 0;
+            failedCallCount = 0;
+            slowCallCount = 0;
+        }
+        if (listener != null) {
+            listener.onStateChange(name, oldState, newState);
+        }
+    }
+}
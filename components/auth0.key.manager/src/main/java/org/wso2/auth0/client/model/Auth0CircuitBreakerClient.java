@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client.model;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.wso2.auth0.client.Auth0Metrics;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feign client that guards each Auth0 endpoint with an {@link Auth0CircuitBreaker}, so that callers fail fast with an
+ * {@link Auth0CircuitOpenException} while Auth0 is down instead of waiting for the connection timeouts. I/O errors and
+ * 5xx responses count as failures. Rate limited calls do not, since they are handled by the retryer.
+ */
+public class Auth0CircuitBreakerClient implements Client {
+    private final Client delegate;
+    private final Auth0Metrics metrics;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallThreshold;
+    private final long waitDuration;
+    private final int windowSize;
+    private final Map<String, Auth0CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate              client making the calls.
+     * @param metrics               metrics to which the state transitions of the circuits are reported.
+     * @param failureRateThreshold  percentage of failed calls at which a circuit opens.
+     * @param slowCallRateThreshold percentage of slow calls at which a circuit opens.
+     * @param slowCallThreshold     duration in milliseconds above which a call is slow.
+     * @param waitDuration          time in milliseconds a circuit stays open before letting a probe call through.
+     * @param windowSize            number of calls over which the rates are computed.
+     */
+    public Auth0CircuitBreakerClient(Client delegate, Auth0Metrics metrics, double failureRateThreshold,
+                                     double slowCallRateThreshold, long slowCallThreshold, long waitDuration,
+                                     int windowSize) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallThreshold = slowCallThreshold;
+        this.waitDuration = waitDuration;
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        String endpoint = Auth0MetricsCapability.getEndpoint(request);
+        Auth0CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(endpoint, this::createCircuitBreaker);
+        if (!circuitBreaker.tryAcquire()) {
+            throw new Auth0CircuitOpenException(endpoint, circuitBreaker.getRemainingOpenTime());
+        }
+        boolean failed = true;
+        long startTime = System.nanoTime();
+        try {
+            Response response = delegate.execute(request, options);
+            failed = response.status() >= 500;
+            return response;
+        } finally {
+            circuitBreaker.onResult(failed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        }
+    }
+
+    private Auth0CircuitBreaker createCircuitBreaker(String endpoint) {
+        return new Auth0CircuitBreaker(endpoint, failureRateThreshold, slowCallRateThreshold, slowCallThreshold,
+                waitDuration, windowSize, (name, from, to) -> metrics.recordCircuitStateChange(name, to.name()));
+    }
+}
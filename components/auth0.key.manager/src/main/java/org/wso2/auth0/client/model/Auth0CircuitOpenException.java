@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client.model;
+
+/**
+ * Thrown without calling Auth0 when the circuit breaker of the endpoint is open.
+ */
+public class Auth0CircuitOpenException extends RuntimeException {
+    private final String endpoint;
+    private final long retryAfter;
+
+    /**
+     * @param endpoint   endpoint whose circuit is open.
+     * @param retryAfter time in milliseconds after which the circuit lets a probe call through.
+     */
+    public Auth0CircuitOpenException(String endpoint, long retryAfter) {
+        super("Auth0 endpoint " + endpoint + " is unavailable. Calls are rejected for the next " + retryAfter
+                + " ms.");
+        this.endpoint = endpoint;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -27,6 +27,11 @@ public interface Auth0ClientGrant {
     @Headers("Content-Type: application/json")
     public Auth0ClientGrantInfo[] getClientGrant(@Param("client_id") String clientId);
 
+    // The checkpoint is left out of the first request, which returns the first page.
+    @RequestLine("GET ?from={from}&take={take}")
+    @Headers("Content-Type: application/json")
+    public Auth0ClientGrantPage getClientGrants(@Param("from") String from, @Param("take") int take);
+
     @RequestLine("POST")
     @Headers("Content-Type: application/json")
     public Auth0ClientGrantInfo createClientGrant(Auth0ClientGrantInfo clientGrant);
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client.model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking counterpart of {@link Auth0ClientGrant}.
+ */
+public interface Auth0ClientGrantAsyncClient {
+    public CompletableFuture<Auth0ClientGrantInfo> createClientGrant(Auth0ClientGrantInfo clientGrant);
+
+    /**
+     * Creates an asynchronous client that runs the calls of the given client on the executor.
+     *
+     * @param client   client making the calls.
+     * @param executor executor running the calls.
+     * @return Auth0ClientGrantAsyncClient.
+     */
+    public static Auth0ClientGrantAsyncClient create(Auth0ClientGrant client, Executor executor) {
+        return new Auth0ClientGrantAsyncClient() {
+            @Override
+            public CompletableFuture<Auth0ClientGrantInfo> createClientGrant(Auth0ClientGrantInfo clientGrant) {
+                return CompletableFuture.supplyAsync(() -> client.createClientGrant(clientGrant), executor);
+            }
+        };
+    }
+}
@@ -25,6 +25,8 @@ import java.util.Arrays;
 import java.util.List;
 
 public class Auth0ClientGrantInfo {
+    @SerializedName("id")
+    private String id;
     @SerializedName("client_id")
     private String clientId;
     @SerializedName("audience")
@@ -38,6 +40,14 @@ public class Auth0ClientGrantInfo {
         this.scope = Arrays.asList(APIConstants.OAUTH2_DEFAULT_SCOPE);
     }
 
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
     public String getClientId() {
         return clientId;
     }
@@ -21,7 +21,9 @@ package org.wso2.auth0.client.model;
 import com.google.gson.annotations.SerializedName;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Auth0ClientInfo {
     @SerializedName("client_id")
@@ -40,6 +42,8 @@ public class Auth0ClientInfo {
     private List<String> grantTypes = new ArrayList<>();
     @SerializedName("callbacks")
     private List<String> redirectUris = new ArrayList<>();
+    @SerializedName("client_metadata")
+    private Map<String, String> clientMetadata;
 
     public String getClientId() {
         return clientId;
@@ -104,4 +108,36 @@ public class Auth0ClientInfo {
     public void setRedirectUris(List<String> redirectUris) {
         this.redirectUris = redirectUris;
     }
+
+    public Map<String, String> getClientMetadata() {
+        return clientMetadata;
+    }
+
+    public void setClientMetadata(Map<String, String> clientMetadata) {
+        this.clientMetadata = clientMetadata;
+    }
+
+    /**
+     * Returns the attributes of the client keyed by their JSON names, leaving out the ones that are not set.
+     *
+     * @return Map of client attributes.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> attributes = new HashMap<>();
+        putIfNotNull(attributes, "client_id", clientId);
+        putIfNotNull(attributes, "client_secret", clientSecret);
+        putIfNotNull(attributes, "app_type", applicationType);
+        putIfNotNull(attributes, "token_endpoint_auth_method", tokenEndpointAuthMethod);
+        putIfNotNull(attributes, "client_id_issued_at", clientIdIssuedTime);
+        putIfNotNull(attributes, "name", clientName);
+        putIfNotNull(attributes, "grant_types", grantTypes);
+        putIfNotNull(attributes, "callbacks", redirectUris);
+        return attributes;
+    }
+
+    private static void putIfNotNull(Map<String, Object> attributes, String name, Object value) {
+        if (value != null) {
+            attributes.put(name, value);
+        }
+    }
 }
@@ -23,6 +23,10 @@ import feign.Param;
 import feign.RequestLine;
 
 public interface Auth0DCRClient {
+    @RequestLine("GET ?page={page}&per_page={perPage}&include_totals=true")
+    @Headers("Content-Type: application/json")
+    public Auth0ClientPage getApplications(@Param("page") int page, @Param("perPage") int perPage);
+
     @RequestLine("POST")
     @Headers("Content-Type: application/json")
     public Auth0ClientInfo createApplication(Auth0ClientInfo clientInfo);
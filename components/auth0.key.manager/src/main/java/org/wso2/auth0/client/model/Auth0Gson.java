@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client.model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the Gson instance shared by the Auth0 key manager. The models exchanged with Auth0 on every call are read and
+ * written by streaming type adapters instead of reflection.
+ */
+public final class Auth0Gson {
+    private static final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(Auth0ClientInfo.class, new ClientInfoAdapter().nullSafe())
+            .registerTypeAdapter(Auth0ClientGrantInfo.class, new ClientGrantInfoAdapter().nullSafe())
+            .registerTypeAdapter(Auth0AccessTokenResponse.class, new AccessTokenResponseAdapter().nullSafe())
+            .create();
+
+    private Auth0Gson() {
+    }
+
+    public static Gson getGson() {
+        return gson;
+    }
+
+    private static void writeStringList(JsonWriter out, String name, List<String> values) throws IOException {
+        if (values == null) {
+            return;
+        }
+        out.name(name).beginArray();
+        for (String value : values) {
+            out.value(value);
+        }
+        out.endArray();
+    }
+
+    private static List<String> readStringList(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            values.add(readString(in));
+        }
+        in.endArray();
+        return values;
+    }
+
+    private static void writeStringMap(JsonWriter out, String name, Map<String, String> values) throws IOException {
+        if (values == null) {
+            return;
+        }
+        out.name(name).beginObject();
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            out.name(value.getKey()).value(value.getValue());
+        }
+        out.endObject();
+    }
+
+    private static Map<String, String> readStringMap(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            values.put(in.nextName(), readString(in));
+        }
+        in.endObject();
+        return values;
+    }
+
+    private static String readString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static Long readLong(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextLong();
+    }
+
+    private static class ClientInfoAdapter extends TypeAdapter<Auth0ClientInfo> {
+        @Override
+        public void write(JsonWriter out, Auth0ClientInfo clientInfo) throws IOException {
+            out.beginObject();
+            out.name("client_id").value(clientInfo.getClientId());
+            out.name("client_secret").value(clientInfo.getClientSecret());
+            out.name("app_type").value(clientInfo.getApplicationType());
+            out.name("token_endpoint_auth_method").value(clientInfo.getTokenEndpointAuthMethod());
+            out.name("client_id_issued_at").value(clientInfo.getClientIdIssuedTime());
+            out.name("name").value(clientInfo.getClientName());
+            writeStringList(out, "grant_types", clientInfo.getGrantTypes());
+            writeStringList(out, "callbacks", clientInfo.getRedirectUris());
+            writeStringMap(out, "client_metadata", clientInfo.getClientMetadata());
+            out.endObject();
+        }
+
+        @Override
+        public Auth0ClientInfo read(JsonReader in) throws IOException {
+            Auth0ClientInfo clientInfo = new Auth0ClientInfo();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "client_id":
+                        clientInfo.setClientId(readString(in));
+                        break;
+                    case "client_secret":
+                        clientInfo.setClientSecret(readString(in));
+                        break;
+                    case "app_type":
+                        clientInfo.setApplicationType(readString(in));
+                        break;
+                    case "token_endpoint_auth_method":
+                        clientInfo.setTokenEndpointAuthMethod(readString(in));
+                        break;
+                    case "client_id_issued_at":
+                        clientInfo.setClientIdIssuedTime(readLong(in));
+                        break;
+                    case "name":
+                        clientInfo.setClientName(readString(in));
+                        break;
+                    case "grant_types":
+                        clientInfo.setGrantTypes(readStringList(in));
+                        break;
+                    case "callbacks":
+                        clientInfo.setRedirectUris(readStringList(in));
+                        break;
+                    case "client_metadata":
+                        clientInfo.setClientMetadata(readStringMap(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return clientInfo;
+        }
+    }
+
+    private static class ClientGrantInfoAdapter extends TypeAdapter<Auth0ClientGrantInfo> {
+        @Override
+        public void write(JsonWriter out, Auth0ClientGrantInfo clientGrantInfo) throws IOException {
+            // The ID is assigned by Auth0 and is not accepted in the requests, so it is only read.
+            out.beginObject();
+            out.name("client_id").value(clientGrantInfo.getClientId());
+            out.name("audience").value(clientGrantInfo.getAudience());
+            writeStringList(out, "scope", clientGrantInfo.getScope());
+            out.endObject();
+        }
+
+        @Override
+        public Auth0ClientGrantInfo read(JsonReader in) throws IOException {
+            Auth0ClientGrantInfo clientGrantInfo = new Auth0ClientGrantInfo(null, null);
+            clientGrantInfo.setScope(null);
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        clientGrantInfo.setId(readString(in));
+                        break;
+                    case "client_id":
+                        clientGrantInfo.setClientId(readString(in));
+                        break;
+                    case "audience":
+                        clientGrantInfo.setAudience(readString(in));
+                        break;
+                    case "scope":
+                        clientGrantInfo.setScope(readStringList(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return clientGrantInfo;
+        }
+    }
+
+    private static class AccessTokenResponseAdapter extends TypeAdapter<Auth0AccessTokenResponse> {
+        @Override
+        public void write(JsonWriter out, Auth0AccessTokenResponse accessTokenResponse) throws IOException {
+            out.beginObject();
+            out.name("access_token").value(accessTokenResponse.getAccessToken());
+            out.name("token_type").value(accessTokenResponse.getTokenType());
+            out.name("expires_in").value(accessTokenResponse.getExpiry());
+            out.name("scope").value(accessTokenResponse.getScope());
+            out.name("createdAt").value(accessTokenResponse.getCreatedAt());
+            out.endObject();
+        }
+
+        @Override
+        public Auth0AccessTokenResponse read(JsonReader in) throws IOException {
+            Auth0AccessTokenResponse accessTokenResponse = new Auth0AccessTokenResponse();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "access_token":
+                        accessTokenResponse.setAccessToken(readString(in));
+                        break;
+                    case "token_type":
+                        accessTokenResponse.setTokenType(readString(in));
+                        break;
+                    case "expires_in":
+                        Long expiry = readLong(in);
+                        accessTokenResponse.setExpiry(expiry != null ? expiry : 0);
+                        break;
+                    case "scope":
+                        accessTokenResponse.setScope(readString(in));
+                        break;
+                    case "createdAt":
+                        Long createdAt = readLong(in);
+                        accessTokenResponse.setCreatedAt(createdAt != null ? createdAt : 0);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return accessTokenResponse;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client.model;
+
+/**
+ * Thrown without calling Auth0 when no management API token is available, because the token could not be fetched.
+ */
+public class Auth0ManagementTokenException extends RuntimeException {
+    private final long retryAfter;
+
+    /**
+     * @param clientId   client ID of the management API credentials.
+     * @param retryAfter time in milliseconds after which the token is fetched again.
+     */
+    public Auth0ManagementTokenException(String clientId, long retryAfter) {
+        super("Management API token for client ID : " + clientId + " is not available. The token is fetched again "
+                + "in " + retryAfter + " ms.");
+        this.retryAfter = retryAfter;
+    }
+
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+}
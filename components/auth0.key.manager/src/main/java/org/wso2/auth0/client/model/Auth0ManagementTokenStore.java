@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client.model;
+
+import java.io.IOException;
+
+/**
+ * Store through which the API Manager nodes of a cluster share the management API token, so that one node fetches
+ * the token and the others read it. The node fetching the token holds a lease, which expires if the node fails
+ * before publishing the token. Implementations must be thread safe.
+ */
+public interface Auth0ManagementTokenStore {
+
+    /**
+     * Returns the token published under the key.
+     *
+     * @param key key of the token.
+     * @return token, or null if none was published.
+     * @throws IOException if the store is not reachable.
+     */
+    Auth0AccessTokenResponse getToken(String key) throws IOException;
+
+    /**
+     * Publishes the token under the key, replacing the token published before.
+     *
+     * @param key   key of the token.
+     * @param token token to publish.
+     * @throws IOException if the store is not reachable.
+     */
+    void putToken(String key, Auth0AccessTokenResponse token) throws IOException;
+
+    /**
+     * Acquires the lease to fetch the token of the key, unless another owner holds a lease that has not expired.
+     *
+     * @param key           key of the token.
+     * @param owner         identifier of the node acquiring the lease.
+     * @param leaseDuration duration of the lease in milliseconds.
+     * @return true if the owner holds the lease.
+     * @throws IOException if the store is not reachable.
+     */
+    boolean tryAcquireLease(String key, String owner, long leaseDuration) throws IOException;
+
+    /**
+     * Releases the lease of the key if it is held by the owner.
+     *
+     * @param key   key of the token.
+     * @param owner identifier of the node that acquired the lease.
+     * @throws IOException if the store is not reachable.
+     */
+    void releaseLease(String key, String owner) throws IOException;
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client.model;
+
+import feign.Capability;
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.RetryableException;
+import feign.Retryer;
+import org.wso2.auth0.client.Auth0Metrics;
+
+import java.io.IOException;
+
+/**
+ * Feign capability that records the metrics of every call made through a client, keyed by the client interface and
+ * method being called.
+ */
+public class Auth0MetricsCapability implements Capability {
+    private final Auth0Metrics metrics;
+
+    public Auth0MetricsCapability(Auth0Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return new MeteredClient(client, metrics);
+    }
+
+    @Override
+    public Retryer enrich(Retryer retryer) {
+        return new MeteredRetryer(retryer, metrics);
+    }
+
+    /**
+     * Returns the name under which the calls of the request are recorded, such as
+     * {@code Auth0DCRClient.createApplication}.
+     *
+     * @param request request being made.
+     * @return endpoint name.
+     */
+    static String getEndpoint(Request request) {
+        if (request == null) {
+            return "unknown";
+        }
+        RequestTemplate requestTemplate = request.requestTemplate();
+        MethodMetadata methodMetadata = requestTemplate != null ? requestTemplate.methodMetadata() : null;
+        if (methodMetadata != null && methodMetadata.method() != null) {
+            return methodMetadata.targetType().getSimpleName() + "." + methodMetadata.method().getName();
+        }
+        return request.httpMethod().name();
+    }
+
+    private static class MeteredClient implements Client {
+        private final Client delegate;
+        private final Auth0Metrics metrics;
+
+        MeteredClient(Client delegate, Auth0Metrics metrics) {
+            this.delegate = delegate;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Response execute(Request request, Request.Options options) throws IOException {
+            String endpoint = getEndpoint(request);
+            int status = -1;
+            boolean rejected = false;
+            metrics.recordRequestStart(endpoint);
+            long startTime = System.nanoTime();
+            try {
+                Response response = delegate.execute(request, options);
+                status = response.status();
+                return response;
+            } catch (Auth0CircuitOpenException e) {
+                rejected = true;
+                throw e;
+            } finally {
+                if (rejected) {
+                    metrics.recordRejectedCall(endpoint);
+                } else {
+                    metrics.recordRequestEnd(endpoint, status, System.nanoTime() - startTime);
+                }
+            }
+        }
+    }
+
+    private static class MeteredRetryer implements Retryer {
+        private final Retryer delegate;
+        private final Auth0Metrics metrics;
+
+        MeteredRetryer(Retryer delegate, Auth0Metrics metrics) {
+            this.delegate = delegate;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void continueOrPropagate(RetryableException e) {
+            delegate.continueOrPropagate(e);
+            metrics.recordRetry(getEndpoint(e.request()));
+        }
+
+        @Override
+        public Retryer clone() {
+            return new MeteredRetryer(delegate.clone(), metrics);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client.model;
+
+import feign.Response;
+import feign.RetryableException;
+import feign.codec.ErrorDecoder;
+
+/**
+ * Error decoder that turns the 429 responses of the Auth0 Management API into retryable exceptions carrying the time
+ * at which the quota resets.
+ */
+public class Auth0RateLimitErrorDecoder implements ErrorDecoder {
+    private static final int TOO_MANY_REQUESTS = 429;
+    private final ErrorDecoder delegate = new ErrorDecoder.Default();
+
+    @Override
+    public Exception decode(String methodKey, Response response) {
+        Exception exception = delegate.decode(methodKey, response);
+        if (response.status() != TOO_MANY_REQUESTS || exception instanceof RetryableException) {
+            return exception;
+        }
+        Long retryAfter = Auth0RateLimiter.getRetryAfter(response.headers());
+        return new RetryableException(response.status(), exception.getMessage(), response.request().httpMethod(),
+                exception, retryAfter, response.request());
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.auth0.client.model;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Token bucket that paces the calls made to the Auth0 Management API. The bucket refills at the configured rate, and
+ * the rate is lowered whenever the X-RateLimit headers returned by Auth0 show that the remaining quota would run out
+ * before the quota window resets.
+ */
+public class Auth0RateLimiter {
+    public static final String RATE_LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String RATE_LIMIT_REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String RATE_LIMIT_RESET_HEADER = "X-RateLimit-Reset";
+    public static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private final double configuredRate;
+    private final double capacity;
+    private double refillRate;
+    private double availablePermits;
+    private long lastRefillTime;
+    private long blockedUntil;
+    private long rateResetTime;
+
+    /**
+     * @param permitsPerSecond number of calls allowed per second.
+     * @param burst            number of calls that can be made at once after an idle period.
+     */
+    public Auth0RateLimiter(double permitsPerSecond, int burst) {
+        this.configuredRate = permitsPerSecond / 1000;
+        this.refillRate = configuredRate;
+        this.capacity = Math.max(1, burst);
+        this.availablePermits = capacity;
+        this.lastRefillTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Blocks until a call can be made without exceeding the rate limit.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitTime;
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                refill(now);
+                if (now >= blockedUntil && availablePermits >= 1) {
+                    availablePermits -= 1;
+                    return;
+                }
+                waitTime = Math.max(blockedUntil - now, (long) Math.ceil((1 - availablePermits) / refillRate));
+            }
+            Thread.sleep(Math.max(1, waitTime));
+        }
+    }
+
+    /**
+     * Adjusts the bucket to the quota reported by Auth0 in the response headers.
+     *
+     * @param headers response headers.
+     */
+    public synchronized void update(Map<String, Collection<String>> headers) {
+        long remaining = getHeaderValue(headers, RATE_LIMIT_REMAINING_HEADER);
+        long reset = getHeaderValue(headers, RATE_LIMIT_RESET_HEADER);
+        if (remaining < 0 || reset < 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long resetTime = reset * 1000;
+        refill(now);
+        availablePermits = Math.min(availablePermits, remaining);
+        if (resetTime > now) {
+            if (remaining == 0) {
+                blockedUntil = Math.max(blockedUntil, resetTime);
+            }
+            // Spread the remaining quota across the rest of the window instead of exhausting it early.
+            refillRate = Math.max(Math.min(configuredRate, (double) remaining / (resetTime - now)),
+                    configuredRate / 100);
+            rateResetTime = resetTime;
+        }
+    }
+
+    /**
+     * Returns the time at which a rate limited call can be retried, based on the Retry-After or X-RateLimit-Reset
+     * headers.
+     *
+     * @param headers response headers.
+     * @return time in milliseconds since the epoch, or null when the headers do not say.
+     */
+    public static Long getRetryAfter(Map<String, Collection<String>> headers) {
+        long retryAfter = getHeaderValue(headers, RETRY_AFTER_HEADER);
+        if (retryAfter >= 0) {
+            return System.currentTimeMillis() + retryAfter * 1000;
+        }
+        long reset = getHeaderValue(headers, RATE_LIMIT_RESET_HEADER);
+        if (reset >= 0) {
+            return reset * 1000;
+        }
+        return null;
+    }
+
+    private void refill(long now) {
+        if (rateResetTime > 0 && now >= rateResetTime) {
+            refillRate = configuredRate;
+            rateResetTime = 0;
+        }
+        if (now > lastRefillTime) {
+            availablePermits = Math.min(capacity, availablePermits + (now - lastRefillTime) * refillRate);
+            lastRefillTime = now;
+        }
+    }
+
+    private static long getHeaderValue(Map<String, Collection<String>> headers, String name) {
+        Collection<String> values = headers.get(name);
+        if (values == null || values.isEmpty()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(values.iterator().next().trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
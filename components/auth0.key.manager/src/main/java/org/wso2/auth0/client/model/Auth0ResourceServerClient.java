@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client.model;
+
+import feign.Headers;
+import feign.Param;
+import feign.RequestLine;
+
+public interface Auth0ResourceServerClient {
+    @RequestLine("GET ?page={page}&per_page={perPage}")
+    @Headers("Content-Type: application/json")
+    public Auth0ResourceServerInfo[] getResourceServers(@Param("page") int page, @Param("perPage") int perPage);
+
+    @RequestLine("POST")
+    @Headers("Content-Type: application/json")
+    public Auth0ResourceServerInfo createResourceServer(Auth0ResourceServerInfo resourceServer);
+
+    // The ID can also be the identifier of the resource server, which is a URL, so slashes must stay encoded.
+    @RequestLine(value = "GET /{id}", decodeSlash = false)
+    @Headers("Content-Type: application/json")
+    public Auth0ResourceServerInfo getResourceServer(@Param("id") String id);
+
+    @RequestLine(value = "PATCH /{id}", decodeSlash = false)
+    @Headers("Content-Type: application/json")
+    public Auth0ResourceServerInfo updateResourceServer(@Param("id") String id,
+                                                        Auth0ResourceServerInfo resourceServer);
+
+    @RequestLine(value = "DELETE /{id}", decodeSlash = false)
+    @Headers("Content-Type: application/json")
+    public void deleteResourceServer(@Param("id") String id);
+}
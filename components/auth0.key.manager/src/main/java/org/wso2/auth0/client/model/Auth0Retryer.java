@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client.model;
+
+import feign.RetryableException;
+import feign.Retryer;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retryer with exponential backoff and jitter, so that callers rejected together by Auth0 do not retry together.
+ * When Auth0 sends the time at which the call can be retried, the wait is at least that long and the jitter is only
+ * added on top of it, and the call is not retried when that time is further away than the maximum backoff.
+ */
+public class Auth0Retryer implements Retryer {
+    private final int maxAttempts;
+    private final long period;
+    private final long maxPeriod;
+    private int attempt;
+
+    /**
+     * @param maxAttempts maximum number of attempts including the first call.
+     * @param period      base backoff in milliseconds.
+     * @param maxPeriod   maximum backoff in milliseconds.
+     */
+    public Auth0Retryer(int maxAttempts, long period, long maxPeriod) {
+        this.maxAttempts = maxAttempts;
+        this.period = period;
+        this.maxPeriod = maxPeriod;
+        this.attempt = 1;
+    }
+
+    @Override
+    public void continueOrPropagate(RetryableException e) {
+        if (attempt++ >= maxAttempts) {
+            throw e;
+        }
+        long sleepTime;
+        if (e.retryAfter() != null) {
+            long retryAfter = Math.max(0, e.retryAfter() - System.currentTimeMillis());
+            if (retryAfter > maxPeriod) {
+                // Retrying before the quota resets is rejected again.
+                throw e;
+            }
+            // Wait at least until the time sent by Auth0, spreading the retries over the base backoff after it.
+            sleepTime = retryAfter + ThreadLocalRandom.current().nextLong(period + 1);
+        } else {
+            long interval = Math.min(maxPeriod, period << Math.min(attempt - 2, 30));
+            // Wait between half and the whole of the interval.
+            sleepTime = interval / 2 + ThreadLocalRandom.current().nextLong(interval / 2 + 1);
+        }
+        try {
+            Thread.sleep(sleepTime);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    @Override
+    public Retryer clone() {
+        return new Auth0Retryer(maxAttempts, period, maxPeriod);
+    }
+}
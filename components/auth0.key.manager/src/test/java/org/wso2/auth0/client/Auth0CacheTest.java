@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Auth0CacheTest {
+
+    @Test
+    public void testHitsAndMisses() {
+        Auth0Cache<String, String> cache = new Auth0Cache<>(10, 60000);
+        cache.put("key", "value");
+        Assert.assertEquals("value", cache.get("key"));
+        Assert.assertNull(cache.get("missing"));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals("value", cache.remove("key"));
+        Assert.assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void testLeastRecentlyReadEntriesAreEvicted() throws InterruptedException {
+        Auth0Cache<Integer, Integer> cache = new Auth0Cache<>(10, 60000);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i);
+            // Entries are ordered by the millisecond in which they were last read or written.
+            Thread.sleep(2);
+        }
+        Assert.assertEquals(Integer.valueOf(0), cache.get(0));
+        Thread.sleep(2);
+        cache.put(10, 10);
+        // The cache is brought down to a tenth below its maximum size.
+        Assert.assertEquals(9, cache.size());
+        Assert.assertEquals(2, cache.getEvictionCount());
+        Assert.assertNull(cache.get(1));
+        Assert.assertNull(cache.get(2));
+        Assert.assertEquals(Integer.valueOf(0), cache.get(0));
+        Assert.assertEquals(Integer.valueOf(3), cache.get(3));
+        Assert.assertEquals(Integer.valueOf(10), cache.get(10));
+    }
+
+    @Test
+    public void testExpiredEntriesAreEvictedFirst() throws InterruptedException {
+        Auth0Cache<Integer, Integer> cache = new Auth0Cache<>(10, 60000);
+        cache.put(0, 0, System.currentTimeMillis() + 20);
+        cache.put(1, 1, System.currentTimeMillis() + 20);
+        for (int i = 2; i < 10; i++) {
+            cache.put(i, i);
+        }
+        Thread.sleep(50);
+        cache.put(10, 10);
+        Assert.assertEquals(9, cache.size());
+        for (int i = 2; i <= 10; i++) {
+            Assert.assertEquals(Integer.valueOf(i), cache.get(i));
+        }
+    }
+
+    @Test
+    public void testEntryExpires() throws InterruptedException {
+        Auth0Cache<String, String> cache = new Auth0Cache<>(10);
+        cache.put("key", "value", System.currentTimeMillis() + 50);
+        Assert.assertEquals("value", cache.get("key"));
+        Thread.sleep(100);
+        Assert.assertNull(cache.get("key"));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testExpiredEntryIsNotCached() {
+        Auth0Cache<String, String> cache = new Auth0Cache<>(10);
+        cache.put("key", "value", System.currentTimeMillis() - 1);
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void testRemoveExpired() throws InterruptedException {
+        Auth0Cache<String, String> cache = new Auth0Cache<>(10, 60000);
+        cache.put("expiring", "value", System.currentTimeMillis() + 20);
+        cache.put("key", "value");
+        Thread.sleep(50);
+        cache.removeExpired();
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals("value", cache.get("key"));
+    }
+
+    @Test
+    public void testRemoveIf() {
+        Auth0Cache<String, String> cache = new Auth0Cache<>(10, 60000);
+        cache.put("first", "remove");
+        cache.put("second", "keep");
+        cache.removeIf("remove"::equals);
+        Assert.assertNull(cache.get("first"));
+        Assert.assertEquals("keep", cache.get("second"));
+    }
+
+    @Test
+    public void testDisabledCache() {
+        Auth0Cache<String, String> cache = new Auth0Cache<>(0, 60000);
+        cache.put("key", "value");
+        Assert.assertNull(cache.get("key"));
+    }
+}
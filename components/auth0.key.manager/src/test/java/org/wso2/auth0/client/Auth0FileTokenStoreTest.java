@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wso2.auth0.client.model.Auth0AccessTokenResponse;
+
+import java.io.IOException;
+
+public class Auth0FileTokenStoreTest {
+    private static final String KEY = "https://tenant.auth0.com/oauth/token|client-id";
+    private static final long LEASE_DURATION = 60000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Auth0FileTokenStore tokenStore;
+
+    @Before
+    public void setUp() {
+        tokenStore = new Auth0FileTokenStore(temporaryFolder.getRoot().toPath().resolve("tokens"));
+    }
+
+    @Test
+    public void testTokenRoundTrip() throws IOException {
+        Assert.assertNull(tokenStore.getToken(KEY));
+        Auth0AccessTokenResponse token = new Auth0AccessTokenResponse();
+        token.setAccessToken("access-token");
+        token.setExpiry(86400);
+        token.setCreatedAt(1700000000000L);
+        tokenStore.putToken(KEY, token);
+        Auth0AccessTokenResponse storedToken = tokenStore.getToken(KEY);
+        Assert.assertNotNull(storedToken);
+        Assert.assertEquals("access-token", storedToken.getAccessToken());
+        Assert.assertEquals(86400, storedToken.getExpiry());
+        Assert.assertEquals(1700000000000L, storedToken.getCreatedAt());
+        Assert.assertNull(tokenStore.getToken("other-key"));
+    }
+
+    @Test
+    public void testLeaseIsExclusive() throws IOException {
+        Assert.assertTrue(tokenStore.tryAcquireLease(KEY, "first", LEASE_DURATION));
+        Assert.assertFalse(tokenStore.tryAcquireLease(KEY, "second", LEASE_DURATION));
+        // The owner renews its own lease.
+        Assert.assertTrue(tokenStore.tryAcquireLease(KEY, "first", LEASE_DURATION));
+        Assert.assertTrue(tokenStore.tryAcquireLease("other-key", "second", LEASE_DURATION));
+    }
+
+    @Test
+    public void testLeaseIsReleasedOnlyByOwner() throws IOException {
+        Assert.assertTrue(tokenStore.tryAcquireLease(KEY, "first", LEASE_DURATION));
+        tokenStore.releaseLease(KEY, "second");
+        Assert.assertFalse(tokenStore.tryAcquireLease(KEY, "second", LEASE_DURATION));
+        tokenStore.releaseLease(KEY, "first");
+        Assert.assertTrue(tokenStore.tryAcquireLease(KEY, "second", LEASE_DURATION));
+    }
+
+    @Test
+    public void testExpiredLeaseIsTakenOver() throws IOException, InterruptedException {
+        Assert.assertTrue(tokenStore.tryAcquireLease(KEY, "first", 1));
+        Thread.sleep(20);
+        Assert.assertTrue(tokenStore.tryAcquireLease(KEY, "second", LEASE_DURATION));
+        Assert.assertFalse(tokenStore.tryAcquireLease(KEY, "first", LEASE_DURATION));
+    }
+
+    @Test
+    public void testLeaseIsSharedBetweenStoresOfSameDirectory() throws IOException {
+        Auth0FileTokenStore otherTokenStore = new Auth0FileTokenStore(
+                temporaryFolder.getRoot().toPath().resolve("tokens"));
+        Assert.assertTrue(tokenStore.tryAcquireLease(KEY, "first", LEASE_DURATION));
+        Assert.assertFalse(otherTokenStore.tryAcquireLease(KEY, "second", LEASE_DURATION));
+    }
+}
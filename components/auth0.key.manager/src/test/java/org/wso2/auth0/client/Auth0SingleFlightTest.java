@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Auth0SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallsAreCoalesced() throws Exception {
+        Auth0Metrics metrics = new Auth0Metrics();
+        Auth0SingleFlight<String, String> singleFlight = new Auth0SingleFlight<>("test", metrics);
+        AtomicInteger callCount = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> singleFlight.execute("key", () -> {
+                callCount.incrementAndGet();
+                await(release);
+                return "value";
+            }));
+            waitUntil(() -> singleFlight.getInFlightCount() == 1);
+            Future<String> second = executor.submit(() -> singleFlight.execute("key", () -> {
+                callCount.incrementAndGet();
+                return "other";
+            }));
+            waitUntil(() -> metrics.getCoalescedCount() == 1);
+            release.countDown();
+            Assert.assertEquals("value", first.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals("value", second.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, callCount.get());
+            Assert.assertEquals(0, singleFlight.getInFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExceptionIsPropagatedToWaiters() throws Exception {
+        Auth0Metrics metrics = new Auth0Metrics();
+        Auth0SingleFlight<String, String> singleFlight = new Auth0SingleFlight<>("test", metrics);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> singleFlight.execute("key", () -> {
+                await(release);
+                throw new IllegalStateException("failed");
+            }));
+            waitUntil(() -> singleFlight.getInFlightCount() == 1);
+            Future<String> second = executor.submit(() -> singleFlight.execute("key", () -> "value"));
+            waitUntil(() -> metrics.getCoalescedCount() == 1);
+            release.countDown();
+            assertFailure(first);
+            assertFailure(second);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCompletedCallIsNotReused() {
+        Auth0SingleFlight<String, Integer> singleFlight = new Auth0SingleFlight<>("test", new Auth0Metrics());
+        AtomicInteger callCount = new AtomicInteger();
+        Assert.assertEquals(Integer.valueOf(1), singleFlight.execute("key", callCount::incrementAndGet));
+        Assert.assertEquals(Integer.valueOf(2), singleFlight.execute("key", callCount::incrementAndGet));
+        Assert.assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    public void testDifferentKeysAreNotCoalesced() throws Exception {
+        Auth0Metrics metrics = new Auth0Metrics();
+        Auth0SingleFlight<String, String> singleFlight = new Auth0SingleFlight<>("test", metrics);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> first = executor.submit(() -> singleFlight.execute("first", () -> {
+                await(release);
+                return "first";
+            }));
+            waitUntil(() -> singleFlight.getInFlightCount() == 1);
+            Assert.assertEquals("second", singleFlight.execute("second", () -> "second"));
+            release.countDown();
+            Assert.assertEquals("first", first.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(0, metrics.getCoalescedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertFailure(Future<String> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("Call did not fail");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            Assert.assertEquals("failed", e.getCause().getMessage());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.isMet()) {
+            Assert.assertTrue("Condition was not met in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private interface Condition {
+        boolean isMet();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class Auth0TokenValidatorTest {
+    private static final String ISSUER = "https://tenant.auth0.com/";
+    private static final String AUDIENCE = "https://tenant.auth0.com/api/v2/";
+    private static final String AUDIENCE_PREFIX = "https://api.example.com/";
+    private static final String CONSUMER_KEY = "consumer-key";
+    private static final long HOUR = 3600000;
+
+    private final AtomicReference<String> jwks = new AtomicReference<>();
+    private final AtomicInteger jwksFetchCount = new AtomicInteger();
+    private final List<Auth0TokenValidator> validators = new ArrayList<>();
+    private KeyPair firstKeyPair;
+    private KeyPair secondKeyPair;
+
+    @Before
+    public void setUp() throws NoSuchAlgorithmException {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        firstKeyPair = keyPairGenerator.generateKeyPair();
+        secondKeyPair = keyPairGenerator.generateKeyPair();
+        publishKeys(new RSAKey.Builder((RSAPublicKey) firstKeyPair.getPublic()).keyID("first").build());
+    }
+
+    @After
+    public void tearDown() {
+        for (Auth0TokenValidator validator : validators) {
+            validator.shutdown();
+        }
+    }
+
+    @Test
+    public void testValidToken() throws Exception {
+        Auth0TokenValidator validator = createValidator(HOUR);
+        long expiryTime = System.currentTimeMillis() / 1000 * 1000 + HOUR;
+        Auth0TokenValidator.ValidatedToken token = validator.validate(createToken(firstKeyPair, "first",
+                createClaims().expirationTime(new Date(expiryTime)).build()));
+        Assert.assertTrue(token.isValid());
+        Assert.assertEquals(CONSUMER_KEY, token.getConsumerKey());
+        Assert.assertEquals(expiryTime, token.getExpiryTime());
+    }
+
+    @Test
+    public void testWrongIssuer() throws Exception {
+        Auth0TokenValidator validator = createValidator(HOUR);
+        Assert.assertFalse(validator.validate(createToken(firstKeyPair, "first",
+                createClaims().issuer("https://other.auth0.com/").build())).isValid());
+    }
+
+    @Test
+    public void testWrongAudience() throws Exception {
+        Auth0TokenValidator validator = createValidator(HOUR);
+        Assert.assertFalse(validator.validate(createToken(firstKeyPair, "first",
+                createClaims().audience("https://other.example.com/").build())).isValid());
+        Assert.assertFalse(validator.validate(createToken(firstKeyPair, "first",
+                createClaims().audience((String) null).build())).isValid());
+    }
+
+    @Test
+    public void testAudienceMatchingPrefix() throws Exception {
+        Auth0TokenValidator validator = createValidator(HOUR);
+        Assert.assertTrue(validator.validate(createToken(firstKeyPair, "first",
+                createClaims().audience(AUDIENCE_PREFIX + "orders").build())).isValid());
+    }
+
+    @Test
+    public void testExpiredToken() throws Exception {
+        Auth0TokenValidator validator = createValidator(HOUR);
+        // Tokens are accepted up to the clock skew after they expire.
+        Assert.assertFalse(validator.validate(createToken(firstKeyPair, "first", createClaims()
+                .expirationTime(new Date(System.currentTimeMillis() - 60000)).build())).isValid());
+        Assert.assertTrue(validator.validate(createToken(firstKeyPair, "first", createClaims()
+                .expirationTime(new Date(System.currentTimeMillis() - 5000)).build())).isValid());
+    }
+
+    @Test
+    public void testInvalidSignature() throws Exception {
+        Auth0TokenValidator validator = createValidator(HOUR);
+        Assert.assertFalse(validator.validate(createToken(secondKeyPair, "first", createClaims().build()))
+                .isValid());
+        Assert.assertFalse(validator.validate("invalid").isValid());
+    }
+
+    @Test
+    public void testUnknownKeyIdIsNotFetchedAgainWithinMinimumInterval() throws Exception {
+        Auth0TokenValidator validator = createValidator(HOUR);
+        int fetchCount = jwksFetchCount.get();
+        publishKeys(new RSAKey.Builder((RSAPublicKey) secondKeyPair.getPublic()).keyID("second").build());
+        Assert.assertFalse(validator.validate(createToken(secondKeyPair, "second", createClaims().build()))
+                .isValid());
+        Assert.assertFalse(validator.validate(createToken(secondKeyPair, "random", createClaims().build()))
+                .isValid());
+        Assert.assertEquals(fetchCount, jwksFetchCount.get());
+    }
+
+    @Test
+    public void testKeyRotation() throws Exception {
+        Auth0TokenValidator validator = createValidator(50);
+        publishKeys(new RSAKey.Builder((RSAPublicKey) secondKeyPair.getPublic()).keyID("second").build());
+        waitUntilValid(validator, createToken(secondKeyPair, "second", createClaims().build()));
+        // Keys that are no longer published are dropped.
+        Assert.assertFalse(validator.validate(createToken(firstKeyPair, "first", createClaims().build())).isValid());
+    }
+
+    private Auth0TokenValidator createValidator(long refreshInterval) throws Exception {
+        Auth0TokenValidator validator = new Auth0TokenValidator(() -> {
+            jwksFetchCount.incrementAndGet();
+            return jwks.get();
+        }, ISSUER, Collections.singletonList(AUDIENCE), AUDIENCE_PREFIX, refreshInterval);
+        validators.add(validator);
+        // The signing keys are fetched in the background when the validator is created.
+        waitUntilValid(validator, createToken(firstKeyPair, "first", createClaims().build()));
+        return validator;
+    }
+
+    private void publishKeys(JWK... keys) {
+        List<JWK> keyList = new ArrayList<>();
+        Collections.addAll(keyList, keys);
+        jwks.set(new JWKSet(keyList).toString());
+    }
+
+    private static void waitUntilValid(Auth0TokenValidator validator, String token) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!validator.validate(token).isValid()) {
+            Assert.assertTrue("Signing key was not fetched", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static JWTClaimsSet.Builder createClaims() {
+        return new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .audience(AUDIENCE)
+                .subject(CONSUMER_KEY + "@clients")
+                .claim(Auth0Constants.AZP, CONSUMER_KEY)
+                .issueTime(new Date())
+                .expirationTime(new Date(System.currentTimeMillis() + HOUR));
+    }
+
+    private static String createToken(KeyPair keyPair, String keyId, JWTClaimsSet claims) throws JOSEException {
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(keyId).build(), claims);
+        signedJWT.sign(new RSASSASigner(keyPair.getPrivate()));
+        return signedJWT.serialize();
+    }
+}
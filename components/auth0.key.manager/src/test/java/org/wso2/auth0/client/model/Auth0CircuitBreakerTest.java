@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class Auth0CircuitBreakerTest {
+    private final List<Auth0CircuitBreaker.State> transitions = new ArrayList<>();
+
+    private Auth0CircuitBreaker createCircuitBreaker(long waitDuration) {
+        // Opens at half of 4 calls failing, or at every call being slower than 100 ms.
+        return new Auth0CircuitBreaker("test", 50, 100, 100, waitDuration, 4,
+                (name, from, to) -> transitions.add(to));
+    }
+
+    @Test
+    public void testCircuitStaysClosedBelowMinimumCalls() {
+        Auth0CircuitBreaker circuitBreaker = createCircuitBreaker(10000);
+        Assert.assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onResult(true, 1);
+        Assert.assertEquals(Auth0CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        Assert.assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void testCircuitOpensAtFailureRateThreshold() {
+        Auth0CircuitBreaker circuitBreaker = createCircuitBreaker(10000);
+        circuitBreaker.onResult(false, 1);
+        circuitBreaker.onResult(true, 1);
+        Assert.assertEquals(Auth0CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assert.assertFalse(circuitBreaker.tryAcquire());
+        Assert.assertTrue(circuitBreaker.getRemainingOpenTime() > 0);
+        Assert.assertEquals(Arrays.asList(Auth0CircuitBreaker.State.OPEN), transitions);
+    }
+
+    @Test
+    public void testCircuitStaysClosedBelowFailureRateThreshold() {
+        Auth0CircuitBreaker circuitBreaker = createCircuitBreaker(10000);
+        circuitBreaker.onResult(false, 1);
+        circuitBreaker.onResult(false, 1);
+        circuitBreaker.onResult(false, 1);
+        circuitBreaker.onResult(true, 1);
+        Assert.assertEquals(Auth0CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        Assert.assertEquals(0, circuitBreaker.getRemainingOpenTime());
+    }
+
+    @Test
+    public void testCircuitOpensAtSlowCallRateThreshold() {
+        Auth0CircuitBreaker circuitBreaker = createCircuitBreaker(10000);
+        circuitBreaker.onResult(false, 500);
+        circuitBreaker.onResult(false, 500);
+        Assert.assertEquals(Auth0CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testSuccessfulProbeClosesCircuit() throws InterruptedException {
+        Auth0CircuitBreaker circuitBreaker = openCircuit(20);
+        Thread.sleep(50);
+        Assert.assertTrue(circuitBreaker.tryAcquire());
+        Assert.assertEquals(Auth0CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        // Only one probe call is let through at a time.
+        Assert.assertFalse(circuitBreaker.tryAcquire());
+        circuitBreaker.onResult(false, 1);
+        Assert.assertEquals(Auth0CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        Assert.assertTrue(circuitBreaker.tryAcquire());
+        Assert.assertEquals(Arrays.asList(Auth0CircuitBreaker.State.OPEN, Auth0CircuitBreaker.State.HALF_OPEN,
+                Auth0CircuitBreaker.State.CLOSED), transitions);
+    }
+
+    @Test
+    public void testFailedProbeOpensCircuitAgain() throws InterruptedException {
+        Auth0CircuitBreaker circuitBreaker = openCircuit(20);
+        Thread.sleep(50);
+        Assert.assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onResult(true, 1);
+        Assert.assertEquals(Auth0CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assert.assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void testResultsOfCallsStartedBeforeOpeningAreIgnored() {
+        Auth0CircuitBreaker circuitBreaker = openCircuit(10000);
+        circuitBreaker.onResult(false, 1);
+        Assert.assertEquals(Auth0CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private Auth0CircuitBreaker openCircuit(long waitDuration) {
+        Auth0CircuitBreaker circuitBreaker = createCircuitBreaker(waitDuration);
+        circuitBreaker.onResult(true, 1);
+        circuitBreaker.onResult(true, 1);
+        Assert.assertEquals(Auth0CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        return circuitBreaker;
+    }
+}
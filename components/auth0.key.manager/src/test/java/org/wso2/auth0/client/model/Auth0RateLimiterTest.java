@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.client.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class Auth0RateLimiterTest {
+
+    @Test
+    public void testBurstIsNotPaced() throws InterruptedException {
+        Auth0RateLimiter rateLimiter = new Auth0RateLimiter(10, 5);
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.acquire();
+        }
+        Assert.assertTrue(System.currentTimeMillis() - startTime < 50);
+    }
+
+    @Test
+    public void testCallsAfterBurstArePaced() throws InterruptedException {
+        Auth0RateLimiter rateLimiter = new Auth0RateLimiter(10, 1);
+        rateLimiter.acquire();
+        long startTime = System.currentTimeMillis();
+        rateLimiter.acquire();
+        rateLimiter.acquire();
+        // Two permits at 10 per second take about 200 ms to refill.
+        Assert.assertTrue(System.currentTimeMillis() - startTime >= 150);
+    }
+
+    @Test
+    public void testRateIsLoweredToSpreadRemainingQuota() throws InterruptedException {
+        Auth0RateLimiter rateLimiter = new Auth0RateLimiter(1000, 1);
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put(Auth0RateLimiter.RATE_LIMIT_REMAINING_HEADER, Collections.singletonList("1"));
+        headers.put(Auth0RateLimiter.RATE_LIMIT_RESET_HEADER, Collections.singletonList(
+                String.valueOf(System.currentTimeMillis() / 1000 + 2)));
+        rateLimiter.update(headers);
+        long startTime = System.currentTimeMillis();
+        rateLimiter.acquire();
+        rateLimiter.acquire();
+        // The rate is lowered to its floor of a hundredth of the configured rate, so the second call waits 100 ms.
+        Assert.assertTrue(System.currentTimeMillis() - startTime >= 50);
+    }
+
+    @Test
+    public void testHeadersWithoutQuotaAreIgnored() throws InterruptedException {
+        Auth0RateLimiter rateLimiter = new Auth0RateLimiter(1000, 1);
+        rateLimiter.update(Collections.singletonMap(Auth0RateLimiter.RATE_LIMIT_REMAINING_HEADER,
+                Collections.singletonList("invalid")));
+        long startTime = System.currentTimeMillis();
+        rateLimiter.acquire();
+        rateLimiter.acquire();
+        Assert.assertTrue(System.currentTimeMillis() - startTime < 50);
+    }
+
+    @Test
+    public void testRetryAfterHeader() {
+        long startTime = System.currentTimeMillis();
+        Long retryAfter = Auth0RateLimiter.getRetryAfter(Collections.singletonMap(
+                Auth0RateLimiter.RETRY_AFTER_HEADER, Collections.singletonList("2")));
+        Assert.assertNotNull(retryAfter);
+        Assert.assertTrue(retryAfter >= startTime + 2000 && retryAfter <= System.currentTimeMillis() + 2000);
+    }
+
+    @Test
+    public void testRateLimitResetHeader() {
+        Long retryAfter = Auth0RateLimiter.getRetryAfter(Collections.singletonMap(
+                Auth0RateLimiter.RATE_LIMIT_RESET_HEADER, Collections.singletonList("1700000000")));
+        Assert.assertEquals(Long.valueOf(1700000000000L), retryAfter);
+    }
+
+    @Test
+    public void testNoRetryAfterWithoutHeaders() {
+        Assert.assertNull(Auth0RateLimiter.getRetryAfter(Collections.emptyMap()));
+    }
+}
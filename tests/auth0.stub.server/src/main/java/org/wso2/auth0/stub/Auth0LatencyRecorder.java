@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.stub;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latencies of the operations run by one load test worker. Not thread safe; each worker records into its
+ * own instance and the instances are merged once the run is over.
+ */
+public class Auth0LatencyRecorder {
+    private long[] latencies = new long[1024];
+    private int count;
+    private long failureCount;
+    private boolean sorted = true;
+
+    /**
+     * @param latency latency of a successful operation in nanoseconds.
+     */
+    public void record(long latency) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latency;
+        sorted = false;
+    }
+
+    public void recordFailure() {
+        failureCount++;
+    }
+
+    /**
+     * Adds the recordings of another recorder to this one.
+     *
+     * @param other recorder to merge.
+     */
+    public void merge(Auth0LatencyRecorder other) {
+        if (count + other.count > latencies.length) {
+            latencies = Arrays.copyOf(latencies, count + other.count);
+        }
+        System.arraycopy(other.latencies, 0, latencies, count, other.count);
+        count += other.count;
+        failureCount += other.failureCount;
+        sorted = false;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Returns the latency below which the given fraction of the successful operations completed.
+     *
+     * @param percentile fraction between 0 and 1, such as 0.99.
+     * @return latency in milliseconds, or 0 if nothing was recorded.
+     */
+    public double getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        if (!sorted) {
+            Arrays.sort(latencies, 0, count);
+            sorted = true;
+        }
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return toMillis(latencies[Math.min(count - 1, Math.max(0, index))]);
+    }
+
+    public double getMax() {
+        return getPercentile(1);
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.stub;
+
+import org.wso2.auth0.client.Auth0Constants;
+import org.wso2.auth0.client.Auth0OAuthClient;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.api.model.AccessTokenRequest;
+import org.wso2.carbon.apimgt.api.model.ApplicationConstants;
+import org.wso2.carbon.apimgt.api.model.KeyManagerConfiguration;
+import org.wso2.carbon.apimgt.api.model.OAuthAppRequest;
+import org.wso2.carbon.apimgt.api.model.OAuthApplicationInfo;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a provisioning or token workload through {@code Auth0OAuthClient} against an {@link Auth0StubServer} and
+ * reports the throughput and the latency percentiles.
+ * <p>
+ * Options are given as {@code --name=value}:
+ * <ul>
+ * <li>{@code workload}: {@code token} (default) issues client credentials tokens for one application,
+ * {@code provision} creates a new application with its client grant per operation.</li>
+ * <li>{@code threads}: number of concurrent callers, 16 by default.</li>
+ * <li>{@code duration} and {@code warmup}: length of the measured run and of the warm up in seconds, 30 and 5 by
+ * default.</li>
+ * <li>{@code latency}: response delay of the stub in milliseconds, either fixed or a {@code min-max} range.</li>
+ * <li>{@code errors}: injected errors as {@code status:probability} pairs, such as {@code 429:0.01,503:0.001}.</li>
+ * <li>{@code rate-limit}: Management API requests allowed per second by the stub.</li>
+ * <li>{@code server-threads}: number of threads serving the stub, 32 by default.</li>
+ * <li>{@code km.<parameter>}: key manager configuration parameter, such as {@code --km.enable_token_cache=true}.</li>
+ * </ul>
+ */
+public final class Auth0LoadDriver {
+    private static final String KEY_MANAGER_PARAMETER_PREFIX = "km.";
+    private static final String AUDIENCE = "https://api.example.com";
+
+    private Auth0LoadDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String workload = options.getOrDefault("workload", "token");
+        int threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        long duration = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "30")));
+        long warmup = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("warmup", "5")));
+
+        Auth0StubServer server = new Auth0StubServer(Integer.parseInt(options.getOrDefault("server-threads", "32")));
+        configureServer(server, options);
+        server.start();
+        try {
+            Auth0OAuthClient keyManager = new Auth0OAuthClient();
+            keyManager.loadConfiguration(createConfiguration(server, options));
+            Operation operation = createOperation(workload, keyManager);
+            Auth0LatencyRecorder result = run(operation, threads, warmup, duration);
+            report(workload, threads, duration, result, server);
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Runs the operation from the given number of threads and records the latencies of the operations started after
+     * the warm up.
+     */
+    private static Auth0LatencyRecorder run(Operation operation, int threads, long warmup, long duration)
+            throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        long measurementStart = System.nanoTime() + warmup;
+        long end = measurementStart + duration;
+        AtomicInteger iterations = new AtomicInteger();
+        List<Future<Auth0LatencyRecorder>> recordings = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            recordings.add(workers.submit(() -> {
+                Auth0LatencyRecorder recorder = new Auth0LatencyRecorder();
+                long start;
+                while ((start = System.nanoTime()) < end) {
+                    boolean succeeded;
+                    try {
+                        operation.run(iterations.incrementAndGet());
+                        succeeded = true;
+                    } catch (APIManagementException | RuntimeException e) {
+                        succeeded = false;
+                    }
+                    if (start >= measurementStart) {
+                        if (succeeded) {
+                            recorder.record(System.nanoTime() - start);
+                        } else {
+                            recorder.recordFailure();
+                        }
+                    }
+                }
+                return recorder;
+            }));
+        }
+        Auth0LatencyRecorder result = new Auth0LatencyRecorder();
+        try {
+            for (Future<Auth0LatencyRecorder> recording : recordings) {
+                result.merge(recording.get());
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return result;
+    }
+
+    private static Operation createOperation(String workload, Auth0OAuthClient keyManager)
+            throws APIManagementException {
+        if ("provision".equals(workload)) {
+            return iteration -> keyManager.createApplication(createApplicationRequest("LoadTest" + iteration));
+        }
+        if ("token".equals(workload)) {
+            OAuthApplicationInfo application = keyManager.createApplication(createApplicationRequest("LoadTest"));
+            AccessTokenRequest accessTokenRequest = new AccessTokenRequest();
+            accessTokenRequest.setClientId(application.getClientId());
+            accessTokenRequest.setClientSecret(application.getClientSecret());
+            accessTokenRequest.setGrantType(Auth0Constants.GRANT_TYPE_CLIENT_CREDENTIALS);
+            return iteration -> keyManager.getNewApplicationAccessToken(accessTokenRequest);
+        }
+        throw new IllegalArgumentException("Unknown workload " + workload + ". Use token or provision.");
+    }
+
+    private static OAuthAppRequest createApplicationRequest(String applicationName) {
+        OAuthApplicationInfo applicationInfo = new OAuthApplicationInfo();
+        applicationInfo.setClientName(applicationName);
+        applicationInfo.setCallBackURL("https://localhost/callback");
+        applicationInfo.addParameter(ApplicationConstants.OAUTH_CLIENT_USERNAME, "admin");
+        applicationInfo.addParameter(ApplicationConstants.APP_KEY_TYPE, "PRODUCTION");
+        applicationInfo.addParameter(APIConstants.JSON_GRANT_TYPES, Auth0Constants.GRANT_TYPE_CLIENT_CREDENTIALS);
+        applicationInfo.addParameter(APIConstants.JSON_ADDITIONAL_PROPERTIES,
+                "{\"" + Auth0Constants.API_AUDIENCE + "\":\"" + AUDIENCE + "\"}");
+        OAuthAppRequest appRequest = new OAuthAppRequest();
+        appRequest.setOAuthApplicationInfo(applicationInfo);
+        return appRequest;
+    }
+
+    private static void configureServer(Auth0StubServer server, Map<String, String> options) {
+        String latency = options.get("latency");
+        if (latency != null) {
+            String[] bounds = latency.split("-");
+            server.setLatency(Long.parseLong(bounds[0].trim()), Long.parseLong(bounds[bounds.length - 1].trim()));
+        }
+        String errors = options.get("errors");
+        if (errors != null) {
+            for (String error : errors.split(",")) {
+                String[] statusAndProbability = error.split(":");
+                server.injectError(Integer.parseInt(statusAndProbability[0].trim()),
+                        Double.parseDouble(statusAndProbability[1].trim()));
+            }
+        }
+        String rateLimit = options.get("rate-limit");
+        if (rateLimit != null) {
+            server.setRateLimit(Integer.parseInt(rateLimit), TimeUnit.SECONDS.toMillis(1));
+        }
+    }
+
+    private static KeyManagerConfiguration createConfiguration(Auth0StubServer server, Map<String, String> options) {
+        KeyManagerConfiguration configuration = new KeyManagerConfiguration();
+        configuration.addParameter(APIConstants.KeyManager.TOKEN_ENDPOINT, server.getTokenEndpoint());
+        configuration.addParameter(Auth0Constants.CLIENT_ID, "load-driver");
+        configuration.addParameter(Auth0Constants.CLIENT_SECRET, "load-driver-secret");
+        configuration.addParameter(Auth0Constants.AUDIENCE, server.getManagementApiAudience());
+        for (Map.Entry<String, String> option : options.entrySet()) {
+            if (option.getKey().startsWith(KEY_MANAGER_PARAMETER_PREFIX)) {
+                configuration.addParameter(option.getKey().substring(KEY_MANAGER_PARAMETER_PREFIX.length()),
+                        option.getValue());
+            }
+        }
+        return configuration;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Invalid option " + arg + ". Options are given as --name=value.");
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private static void report(String workload, int threads, long duration, Auth0LatencyRecorder result,
+                               Auth0StubServer server) {
+        double seconds = (double) duration / TimeUnit.SECONDS.toNanos(1);
+        System.out.printf("Workload %s with %d threads for %.0f s%n", workload, threads, seconds);
+        System.out.printf("Operations: %d succeeded, %d failed%n", result.getCount(), result.getFailureCount());
+        System.out.printf("Throughput: %.1f ops/s%n", result.getCount() / seconds);
+        System.out.printf("Latency (ms): p50 %.2f, p99 %.2f, p999 %.2f, max %.2f%n", result.getPercentile(0.5),
+                result.getPercentile(0.99), result.getPercentile(0.999), result.getMax());
+        System.out.printf("Stub server: %d requests, %d rate limited, %d injected errors, %d clients%n",
+                server.getRequestCount(), server.getRateLimitedCount(), server.getInjectedErrorCount(),
+                server.getClientCount());
+    }
+
+    private interface Operation {
+        void run(int iteration) throws APIManagementException;
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.auth0.stub;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.wso2.auth0.client.model.Auth0RateLimiter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for an Auth0 tenant, serving the token endpoint and the client and client grant endpoints of
+ * the Management API from memory. Responses can be delayed, failed with injected errors and rate limited with the
+ * same headers Auth0 returns, so that the key manager can be load tested without a live tenant.
+ */
+public class Auth0StubServer {
+    public static final String TOKEN_PATH = "/oauth/token";
+    public static final String MANAGEMENT_API_PATH = "/api/v2/";
+    private static final String CLIENTS_PATH = MANAGEMENT_API_PATH + "clients";
+    private static final String CLIENT_GRANTS_PATH = MANAGEMENT_API_PATH + "client-grants";
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, JsonObject> clients = new ConcurrentHashMap<>();
+    private final Map<String, JsonObject> clientGrants = new ConcurrentHashMap<>();
+    private final Map<String, String> clientGrantIds = new ConcurrentHashMap<>();
+    private final Map<Integer, Double> errorRates = new ConcurrentHashMap<>();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong rateLimitedCount = new AtomicLong();
+    private final AtomicLong injectedErrorCount = new AtomicLong();
+    private volatile long minLatency;
+    private volatile long maxLatency;
+    private volatile long tokenExpiry = 86400;
+    private int rateLimit;
+    private long rateLimitWindow;
+    private long windowStart;
+    private int windowRequestCount;
+
+    /**
+     * Creates a server listening on a random free port of the loopback interface.
+     *
+     * @param threads number of threads serving the requests.
+     * @throws IOException if the server cannot be bound.
+     */
+    public Auth0StubServer(int threads) throws IOException {
+        this(0, threads);
+    }
+
+    /**
+     * @param port    port to listen on, or 0 for a random free port.
+     * @param threads number of threads serving the requests.
+     * @throws IOException if the server cannot be bound.
+     */
+    public Auth0StubServer(int port, int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "auth0-stub-server-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(TOKEN_PATH, exchange -> handle(exchange, false, this::handleToken));
+        server.createContext(CLIENTS_PATH, exchange -> handle(exchange, true, this::handleClients));
+        server.createContext(CLIENT_GRANTS_PATH, exchange -> handle(exchange, true, this::handleClientGrants));
+    }
+
+    public Auth0StubServer start() {
+        server.start();
+        return this;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String getTokenEndpoint() {
+        return getBaseUrl() + TOKEN_PATH;
+    }
+
+    /**
+     * @return audience of the Management API, which is also the base URL of its endpoints.
+     */
+    public String getManagementApiAudience() {
+        return getBaseUrl() + MANAGEMENT_API_PATH;
+    }
+
+    /**
+     * Delays every response by a random time between the given bounds.
+     *
+     * @param minLatency minimum delay in milliseconds.
+     * @param maxLatency maximum delay in milliseconds.
+     */
+    public void setLatency(long minLatency, long maxLatency) {
+        this.minLatency = Math.max(0, minLatency);
+        this.maxLatency = Math.max(this.minLatency, maxLatency);
+    }
+
+    /**
+     * Fails the given fraction of the requests with the given status code. Injected 429 responses carry a
+     * Retry-After header.
+     *
+     * @param status      HTTP status code of the injected error.
+     * @param probability fraction of the requests to fail, between 0 and 1.
+     */
+    public void injectError(int status, double probability) {
+        if (probability > 0) {
+            errorRates.put(status, Math.min(1, probability));
+        } else {
+            errorRates.remove(status);
+        }
+    }
+
+    public void clearErrors() {
+        errorRates.clear();
+    }
+
+    /**
+     * Limits the Management API to the given number of requests per window, reporting the quota in the
+     * X-RateLimit headers and rejecting the requests beyond it with 429, as Auth0 does.
+     *
+     * @param limit  number of requests allowed per window, or 0 to disable rate limiting.
+     * @param window length of the window in milliseconds.
+     */
+    public synchronized void setRateLimit(int limit, long window) {
+        this.rateLimit = limit;
+        this.rateLimitWindow = Math.max(1, window);
+        this.windowStart = 0;
+        this.windowRequestCount = 0;
+    }
+
+    /**
+     * @param tokenExpiry validity period of the issued tokens in seconds.
+     */
+    public void setTokenExpiry(long tokenExpiry) {
+        this.tokenExpiry = tokenExpiry;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimitedCount.get();
+    }
+
+    public long getInjectedErrorCount() {
+        return injectedErrorCount.get();
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    public int getClientGrantCount() {
+        return clientGrants.size();
+    }
+
+    private void handle(HttpExchange exchange, boolean managementApi, Handler handler) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            delay();
+            if (managementApi && !checkRateLimit(exchange)) {
+                rateLimitedCount.incrementAndGet();
+                exchange.getResponseHeaders().add(Auth0RateLimiter.RETRY_AFTER_HEADER, "1");
+                sendError(exchange, HTTP_TOO_MANY_REQUESTS, "Global limit has been reached");
+                return;
+            }
+            int injectedStatus = getInjectedErrorStatus();
+            if (injectedStatus > 0) {
+                injectedErrorCount.incrementAndGet();
+                if (injectedStatus == HTTP_TOO_MANY_REQUESTS) {
+                    exchange.getResponseHeaders().add(Auth0RateLimiter.RETRY_AFTER_HEADER, "1");
+                }
+                sendError(exchange, injectedStatus, "Injected error");
+                return;
+            }
+            String path = exchange.getRequestURI().getPath().substring(exchange.getHttpContext().getPath().length());
+            handler.handle(exchange, path.startsWith("/") ? path.substring(1) : path);
+        } catch (JsonParseException | IllegalStateException e) {
+            sendError(exchange, 400, "Invalid request body");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "Server is shutting down");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleToken(HttpExchange exchange, String path) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+        Map<String, String> form = parseForm(readBody(exchange));
+        JsonObject token = new JsonObject();
+        token.addProperty("access_token", UUID.randomUUID().toString());
+        token.addProperty("token_type", "Bearer");
+        token.addProperty("expires_in", tokenExpiry);
+        if (form.get("scope") != null && !form.get("scope").isEmpty()) {
+            token.addProperty("scope", form.get("scope"));
+        }
+        send(exchange, 200, token);
+    }
+
+    private void handleClients(HttpExchange exchange, String path) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (path.isEmpty() && "POST".equals(method)) {
+            JsonObject client = JsonParser.parseString(readBody(exchange)).getAsJsonObject();
+            String clientId = UUID.randomUUID().toString().replace("-", "");
+            client.addProperty("client_id", clientId);
+            client.addProperty("client_secret", UUID.randomUUID().toString() + UUID.randomUUID().toString());
+            clients.put(clientId, client);
+            send(exchange, 201, client);
+            return;
+        }
+        String[] segments = path.split("/");
+        JsonObject client = clients.get(segments[0]);
+        if (client == null) {
+            sendError(exchange, 404, "The client does not exist");
+        } else if (segments.length == 2 && "rotate-secret".equals(segments[1]) && "POST".equals(method)) {
+            synchronized (client) {
+                client.addProperty("client_secret", UUID.randomUUID().toString() + UUID.randomUUID().toString());
+            }
+            send(exchange, 200, client);
+        } else if (segments.length > 1) {
+            sendError(exchange, 404, "Not found");
+        } else if ("GET".equals(method)) {
+            send(exchange, 200, client);
+        } else if ("PATCH".equals(method)) {
+            JsonObject changes = JsonParser.parseString(readBody(exchange)).getAsJsonObject();
+            synchronized (client) {
+                for (Map.Entry<String, JsonElement> change : changes.entrySet()) {
+                    client.add(change.getKey(), change.getValue());
+                }
+            }
+            send(exchange, 200, client);
+        } else if ("DELETE".equals(method)) {
+            clients.remove(segments[0]);
+            clientGrants.values().removeIf(grant -> segments[0].equals(grant.get("client_id").getAsString()));
+            clientGrantIds.keySet().removeIf(key -> key.startsWith(segments[0] + " "));
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            sendError(exchange, 405, "Method not allowed");
+        }
+    }
+
+    private void handleClientGrants(HttpExchange exchange, String path) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (path.isEmpty() && "GET".equals(method)) {
+            String clientId = parseForm(exchange.getRequestURI().getRawQuery()).get("client_id");
+            JsonArray grants = new JsonArray();
+            for (JsonObject grant : clientGrants.values()) {
+                if (clientId == null || clientId.equals(grant.get("client_id").getAsString())) {
+                    grants.add(grant);
+                }
+            }
+            send(exchange, 200, grants);
+        } else if (path.isEmpty() && "POST".equals(method)) {
+            JsonObject grant = JsonParser.parseString(readBody(exchange)).getAsJsonObject();
+            if (!grant.has("client_id") || !grant.has("audience")) {
+                sendError(exchange, 400, "Payload validation error");
+                return;
+            }
+            String clientId = grant.get("client_id").getAsString();
+            if (!clients.containsKey(clientId)) {
+                sendError(exchange, 404, "Client not found");
+                return;
+            }
+            String grantId = "cgr_" + UUID.randomUUID().toString().replace("-", "");
+            if (clientGrantIds.putIfAbsent(clientId + " " + grant.get("audience").getAsString(), grantId) != null) {
+                sendError(exchange, 409, "A client grant for this client and audience already exists");
+                return;
+            }
+            grant.addProperty("id", grantId);
+            if (!grant.has("scope")) {
+                grant.add("scope", new JsonArray());
+            }
+            clientGrants.put(grantId, grant);
+            send(exchange, 201, grant);
+        } else if (!path.isEmpty() && "PATCH".equals(method)) {
+            JsonObject grant = clientGrants.get(path);
+            if (grant == null) {
+                sendError(exchange, 404, "The client grant does not exist");
+                return;
+            }
+            JsonObject changes = JsonParser.parseString(readBody(exchange)).getAsJsonObject();
+            synchronized (grant) {
+                if (changes.has("scope")) {
+                    grant.add("scope", changes.get("scope"));
+                }
+            }
+            send(exchange, 200, grant);
+        } else {
+            sendError(exchange, 405, "Method not allowed");
+        }
+    }
+
+    private void delay() throws InterruptedException {
+        long min = minLatency;
+        long max = maxLatency;
+        long latency = max > min ? ThreadLocalRandom.current().nextLong(min, max + 1) : min;
+        if (latency > 0) {
+            Thread.sleep(latency);
+        }
+    }
+
+    /**
+     * Counts the request against the current window and adds the X-RateLimit headers to the response.
+     *
+     * @return false if the quota of the window is exhausted.
+     */
+    private synchronized boolean checkRateLimit(HttpExchange exchange) {
+        if (rateLimit <= 0) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now - windowStart >= rateLimitWindow) {
+            windowStart = now;
+            windowRequestCount = 0;
+        }
+        boolean allowed = windowRequestCount < rateLimit;
+        if (allowed) {
+            windowRequestCount++;
+        }
+        exchange.getResponseHeaders().add(Auth0RateLimiter.RATE_LIMIT_HEADER, String.valueOf(rateLimit));
+        exchange.getResponseHeaders().add(Auth0RateLimiter.RATE_LIMIT_REMAINING_HEADER,
+                String.valueOf(rateLimit - windowRequestCount));
+        exchange.getResponseHeaders().add(Auth0RateLimiter.RATE_LIMIT_RESET_HEADER,
+                String.valueOf((windowStart + rateLimitWindow + 999) / 1000));
+        return allowed;
+    }
+
+    private int getInjectedErrorStatus() {
+        for (Map.Entry<Integer, Double> errorRate : errorRates.entrySet()) {
+            if (ThreadLocalRandom.current().nextDouble() < errorRate.getValue()) {
+                return errorRate.getKey();
+            }
+        }
+        return 0;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        JsonObject error = new JsonObject();
+        error.addProperty("statusCode", status);
+        error.addProperty("error", getReasonPhrase(status));
+        error.addProperty("message", message);
+        send(exchange, status, error);
+    }
+
+    private static void send(HttpExchange exchange, int status, JsonElement body) throws IOException {
+        byte[] payload;
+        synchronized (body) {
+            payload = body.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, payload.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(payload);
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        try (InputStream inputStream = exchange.getRequestBody()) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parseForm(String form) throws UnsupportedEncodingException {
+        Map<String, String> parameters = new HashMap<>();
+        if (form == null || form.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : form.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, separator), "UTF-8"),
+                        URLDecoder.decode(pair.substring(separator + 1), "UTF-8"));
+            }
+        }
+        return parameters;
+    }
+
+    private static String getReasonPhrase(int status) {
+        switch (status) {
+            case 400:
+                return "Bad Request";
+            case 404:
+                return "Not Found";
+            case 405:
+                return "Method Not Allowed";
+            case 409:
+                return "Conflict";
+            case HTTP_TOO_MANY_REQUESTS:
+                return "Too Many Requests";
+            case 503:
+                return "Service Unavailable";
+            default:
+                return status >= 500 ? "Internal Server Error" : "Error";
+        }
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange, String path) throws IOException;
+    }
+}